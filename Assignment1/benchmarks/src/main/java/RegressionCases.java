@@ -0,0 +1,85 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * Tanner Turba
+ * CS 557 - Machine Learning
+ * Runs the cases of the regression benchmarks. This class is in the default package so it can
+ * reach the program's classes, and the benchmarks reach it through benchmarks.Regression.
+ */
+public class RegressionCases implements benchmarks.Regression {
+    private String fileName;
+    private ArrayList<Point> points;
+    private int degree;
+    private DesignMatrix data;
+    private Basis interactions;
+    private Driver driver;
+
+    @Override
+    public void open(String fileName) throws IOException {
+        this.fileName = fileName;
+        points = loadWithReader();
+    }
+
+    @Override
+    public void prepare(int degree, int epochs) {
+        this.degree = degree;
+        data = new DesignMatrix(points, degree);
+        interactions = new Basis(data.getNumOfInputs(), degree, true);
+
+        // Fixed number of epochs, so every run does the same amount of work
+        driver = new Driver(new String[] { "-m", "10", "-e", String.valueOf(epochs), "-v", "0" });
+    }
+
+    @Override
+    public ArrayList<Point> loadWithScanner() throws IOException {
+        ArrayList<Point> dataPoints = new ArrayList<>();
+        Scanner scanner = new Scanner(new File(fileName));
+        while (scanner.hasNextLine()) {
+            String line = scanner.nextLine().trim();
+            if (line.charAt(0) != '#') {
+                String[] vals = line.split(" ");
+                if (vals.length > 1) {
+                    dataPoints.add(new Point(vals));
+                }
+            }
+        }
+        scanner.close();
+        return dataPoints;
+    }
+
+    @Override
+    public ArrayList<Point> loadWithReader() throws IOException {
+        ArrayList<Point> dataPoints = new ArrayList<>();
+        try (NumberReader reader = NumberReader.open(fileName)) {
+            int count;
+            while ((count = reader.next()) != -1) {
+                if (count > 1) {
+                    double[] vals = reader.getValues();
+                    dataPoints.add(new Point(Arrays.copyOf(vals, count - 1), vals[count - 1]));
+                }
+            }
+        }
+        return dataPoints;
+    }
+
+    @Override
+    public DesignMatrix augment() {
+        return new DesignMatrix(points, degree);
+    }
+
+    @Override
+    public DesignMatrix augmentInteractions() {
+        return new DesignMatrix(points, interactions);
+    }
+
+    @Override
+    public double[] miniBatchGradientDescent() {
+        return driver.miniBatchGradientDescent(data, degree, new StringBuilder());
+    }
+
+    @Override
+    public double[] normalEquations() {
+        return LeastSquares.solve(data.getX(), data.getY(), data.getRows(), data.getCols());
+    }
+}
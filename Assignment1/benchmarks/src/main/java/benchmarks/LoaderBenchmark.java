@@ -0,0 +1,40 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Tanner Turba
+ * CS 557 - Machine Learning
+ * Compares loading the bundled data files with the original Scanner and String.split path
+ * against NumberReader. Run from the Assignment1 folder, and use "-p fileName=..." to time
+ * another file, such as a large generated one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoaderBenchmark {
+    @Param({ "a01-data/sample-p1-d1.txt", "a01-data/sample-p2-d2.txt", "a01-data/sample-p5-d3.txt" })
+    private String fileName;
+
+    private Regression cases;
+
+    @Setup
+    public void setUp() throws Exception {
+        cases = Regression.create();
+        cases.open(fileName);
+    }
+
+    @Benchmark
+    public Object scanner() throws Exception {
+        return cases.loadWithScanner();
+    }
+
+    @Benchmark
+    public Object numberReader() throws Exception {
+        return cases.loadWithReader();
+    }
+}
@@ -0,0 +1,74 @@
+package benchmarks;
+
+import java.io.IOException;
+
+/**
+ * Tanner Turba
+ * CS 557 - Machine Learning
+ * The hot paths of the regression program, as the benchmarks see them. The program's classes
+ * are in the default package, which JMH does not allow benchmarks in and which cannot be
+ * imported, so the benchmarks call them through this interface. RegressionCases, in the
+ * default package, implements it.
+ */
+public interface Regression {
+    /**
+     * Creates the cases, which are found by name since their class cannot be imported.
+     * @return the cases.
+     * @throws ReflectiveOperationException if RegressionCases is missing.
+     */
+    static Regression create() throws ReflectiveOperationException {
+        return (Regression)Class.forName("RegressionCases").getDeclaredConstructor().newInstance();
+    }
+
+    /**
+     * Loads a data file to run the cases on.
+     * @param fileName the data file.
+     * @throws IOException if the file cannot be read.
+     */
+    void open(String fileName) throws IOException;
+
+    /**
+     * Augments the loaded points for the fitting cases.
+     * @param degree the polynomial degree.
+     * @param epochs the epoch limit of gradient descent.
+     */
+    void prepare(int degree, int epochs);
+
+    /**
+     * Loads the file with a Scanner and String.split, the way Driver originally did.
+     * @return the points.
+     * @throws IOException if the file cannot be read.
+     */
+    Object loadWithScanner() throws IOException;
+
+    /**
+     * Loads the file with NumberReader, the way Driver does now.
+     * @return the points.
+     * @throws IOException if the file cannot be read.
+     */
+    Object loadWithReader() throws IOException;
+
+    /**
+     * Augments the points to the polynomial degree.
+     * @return the design matrix.
+     */
+    Object augment();
+
+    /**
+     * Augments the points to the polynomial degree, with the products of different inputs.
+     * @return the design matrix.
+     */
+    Object augmentInteractions();
+
+    /**
+     * Fits the augmented points with mini batch gradient descent.
+     * @return the weights.
+     */
+    Object miniBatchGradientDescent();
+
+    /**
+     * Fits the augmented points by solving the normal equations.
+     * @return the weights.
+     */
+    Object normalEquations();
+}
@@ -0,0 +1,57 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Tanner Turba
+ * CS 557 - Machine Learning
+ * Times augmenting and fitting the bundled data files at each polynomial degree. Gradient
+ * descent runs a fixed number of epochs, so every run does the same amount of work. Run from
+ * the Assignment1 folder, and use "-p fileName=..." to time another file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegressionBenchmark {
+    @Param({ "a01-data/sample-p1-d1.txt", "a01-data/sample-p2-d2.txt", "a01-data/sample-p5-d3.txt" })
+    private String fileName;
+
+    @Param({ "1", "2", "3" })
+    private int degree;
+
+    @Param({ "100" })
+    private int epochs;
+
+    private Regression cases;
+
+    @Setup
+    public void setUp() throws Exception {
+        cases = Regression.create();
+        cases.open(fileName);
+        cases.prepare(degree, epochs);
+    }
+
+    @Benchmark
+    public Object augment() {
+        return cases.augment();
+    }
+
+    @Benchmark
+    public Object augmentInteractions() {
+        return cases.augmentInteractions();
+    }
+
+    @Benchmark
+    public Object miniBatchGradientDescent() {
+        return cases.miniBatchGradientDescent();
+    }
+
+    @Benchmark
+    public Object normalEquations() {
+        return cases.normalEquations();
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * Tanner Turba
+ * CS 557 - Machine Learning
+ * The augmented attributes of a polynomial model, each written as an earlier term times one
+ * input. Expanding a row is then a single pass of running products over the row's own slot
+ * in a design matrix, so no powers are recomputed and nothing is allocated per row. The
+ * default basis holds every input raised to each degree. The interaction basis holds every
+ * product of inputs up to the degree, such as X1*X2, which per-input powers cannot express.
+ */
+public class Basis {
+    private int numOfInputs;
+    private int degree;
+    private boolean isInteractions;
+    private int[] parents;
+    private int[] factors;
+    private String[] labels;
+
+    /**
+     * Creates the basis of a polynomial model.
+     * @param numOfInputs the number of original inputs.
+     * @param degree the polynomial degree.
+     * @param isInteractions true to include the products of different inputs.
+     */
+    public Basis(int numOfInputs, int degree, boolean isInteractions) {
+        this.numOfInputs = numOfInputs;
+        this.degree = degree;
+        this.isInteractions = isInteractions;
+        if (isInteractions) {
+            buildInteractions();
+        }
+        else {
+            buildPowers();
+        }
+    }
+
+    /**
+     * Lays out the bias, then every input raised to each degree, grouped by degree. Each
+     * power is the power one degree lower times the input.
+     */
+    private void buildPowers() {
+        int size = (numOfInputs * degree) + 1;
+        parents = new int[size];
+        factors = new int[size];
+        labels = new String[size];
+        labels[0] = "";
+        for (int deg = 1; deg <= degree; deg++) {
+            for (int i = 0; i < numOfInputs; i++) {
+                int index = (deg - 1) * numOfInputs + i + 1;
+                parents[index] = deg == 1 ? 0 : index - numOfInputs;
+                factors[index] = i;
+                labels[index] = deg == 1 ? String.format("X%d", i + 1) : String.format("X%d^%d", i + 1, deg);
+            }
+        }
+    }
+
+    /**
+     * Lays out the bias, then every product of inputs of each total degree, grouped by
+     * degree. A term of degree d is a term of degree d - 1 times an input that is not
+     * before any of its own inputs, so each product appears exactly once.
+     */
+    private void buildInteractions() {
+        // There are (n + d) choose d products of at most d of the n inputs
+        long count = 1;
+        for (int k = 1; k <= degree; k++) {
+            count = count * (numOfInputs + k) / k;
+        }
+        if (count > Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException(String.format("Too many interaction terms for %d inputs at degree %d", numOfInputs, degree));
+        }
+
+        int size = (int)count;
+        parents = new int[size];
+        factors = new int[size];
+        labels = new String[size];
+        int[][] exponents = new int[size][];
+        exponents[0] = new int[numOfInputs];
+        labels[0] = "";
+
+        int index = 1;
+        int start = 0;
+        int end = 1;
+        for (int deg = 1; deg <= degree; deg++) {
+            for (int parent = start; parent < end; parent++) {
+                int first = parent == 0 ? 0 : factors[parent];
+                for (int i = first; i < numOfInputs; i++) {
+                    parents[index] = parent;
+                    factors[index] = i;
+                    exponents[index] = exponents[parent].clone();
+                    exponents[index][i]++;
+                    labels[index] = label(exponents[index]);
+                    index++;
+                }
+            }
+            start = end;
+            end = index;
+        }
+    }
+
+    /**
+     * Names a product of inputs, such as X1^2*X3.
+     * @param exponents the power of each input.
+     * @return the name.
+     */
+    private static String label(int[] exponents) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < exponents.length; i++) {
+            if (exponents[i] > 0) {
+                if (sb.length() > 0) {
+                    sb.append("*");
+                }
+                sb.append(String.format("X%d", i + 1));
+                if (exponents[i] > 1) {
+                    sb.append(String.format("^%d", exponents[i]));
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes the augmented attributes of a row into a buffer.
+     * @param inputs the original inputs.
+     * @param x the buffer to write into.
+     * @param offset the index of the row's first attribute in the buffer.
+     */
+    public void expand(double[] inputs, double[] x, int offset) {
+        x[offset] = 1;
+        for (int j = 1; j < parents.length; j++) {
+            x[offset + j] = x[offset + parents[j]] * inputs[factors[j]];
+        }
+    }
+
+    /**
+     * @return int return the number of augmented attributes, including the bias
+     */
+    public int size() {
+        return parents.length;
+    }
+
+    /**
+     * @param term the index of an augmented attribute
+     * @return String return the name of the attribute, which is empty for the bias
+     */
+    public String getLabel(int term) {
+        return labels[term];
+    }
+
+    /**
+     * @return int return the number of original inputs
+     */
+    public int getNumOfInputs() {
+        return numOfInputs;
+    }
+
+    /**
+     * @return int return the polynomial degree
+     */
+    public int getDegree() {
+        return degree;
+    }
+
+    /**
+     * @return boolean return true if the basis includes products of different inputs
+     */
+    public boolean isInteractions() {
+        return isInteractions;
+    }
+}
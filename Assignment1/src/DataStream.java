@@ -0,0 +1,108 @@
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+/**
+ * Tanner Turba
+ * CS 557 - Machine Learning
+ * Reads a data file in fixed-size chunks of rows, augmenting each chunk into a reusable
+ * design matrix. Only one chunk is held in memory at a time, so files far larger than the
+ * heap can be trained on by making one pass over the stream per epoch.
+ */
+public class DataStream implements Closeable {
+    private NumberReader reader;
+    private DesignMatrix chunk;
+    private double[] inputs;
+    private int nextCount;
+    private long firstRow = 0;
+    private long rowsRead = 0;
+
+    /**
+     * Opens a stream over the data file.
+     * @param fileName the data file.
+     * @param degree the polynomial degree to augment the inputs to.
+     * @param isInteractions true to augment with the products of different inputs too.
+     * @param chunkSize the number of rows in each chunk.
+     * @throws IOException if the file cannot be read.
+     */
+    public DataStream(String fileName, int degree, boolean isInteractions, int chunkSize) throws IOException {
+        reader = new NumberReader(FileChannel.open(Paths.get(fileName), StandardOpenOption.READ));
+
+        // Read ahead to the first row to find the number of inputs
+        nextCount = readDataRow();
+        int numOfInputs = nextCount < 0 ? 0 : nextCount - 1;
+        chunk = new DesignMatrix(chunkSize, new Basis(numOfInputs, degree, isInteractions));
+        inputs = new double[numOfInputs];
+    }
+
+    /**
+     * Reads the next chunk of rows. The returned matrix is reused by every call.
+     * @return the chunk, or null if there are no rows left.
+     * @throws IOException if the file cannot be read, or a row is not as wide as the first.
+     */
+    public DesignMatrix next() throws IOException {
+        int rows = 0;
+        firstRow = rowsRead;
+        while (rows < chunk.getCapacity() && nextCount >= 0) {
+            if (nextCount != inputs.length + 1) {
+                throw new IOException(String.format("Data row %d has %d values, expected %d", rowsRead + rows + 1, nextCount, inputs.length + 1));
+            }
+            double[] vals = reader.getValues();
+            System.arraycopy(vals, 0, inputs, 0, inputs.length);
+            chunk.setRow(rows, inputs, vals[nextCount - 1]);
+            rows++;
+            nextCount = readDataRow();
+        }
+
+        rowsRead += rows;
+        chunk.setRows(rows);
+        return rows == 0 ? null : chunk;
+    }
+
+    /**
+     * Reads rows until one holds a data point, which needs at least one input and an output.
+     * @return the number of values in the row, or -1 at the end of the file.
+     * @throws IOException if the file cannot be read.
+     */
+    private int readDataRow() throws IOException {
+        int count;
+        while ((count = reader.next()) != -1) {
+            if (count > 1) {
+                return count;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the index, within the whole file, of the first row of the current chunk.
+     * @return the index of the first row.
+     */
+    public long getFirstRow() {
+        return firstRow;
+    }
+
+    /**
+     * Gets the number of original inputs in each row.
+     * @return the number of inputs.
+     */
+    public int getNumOfInputs() {
+        return inputs.length;
+    }
+
+    /**
+     * Gets the augmented attributes of each row.
+     * @return the basis.
+     */
+    public Basis getBasis() {
+        return chunk.getBasis();
+    }
+
+    /**
+     * Closes the underlying file.
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,201 @@
+import java.util.*;
+
+/**
+ * Tanner Turba
+ * CS 557 - Machine Learning
+ * A contiguous, row-major copy of the augmented dataset. Each row holds the attributes of
+ * a polynomial basis, starting with the bias, and the outputs are kept in a parallel array.
+ * This is built once per degree so training and error calculations never touch Point objects.
+ */
+public class DesignMatrix {
+    private double[] x;
+    private double[] y;
+    private int rows;
+    private int cols;
+    private Basis basis;
+
+    /**
+     * Creates the design matrix for the points, augmented to the specified polynomial degree.
+     * @param points the points to copy.
+     * @param degree the polynomial degree.
+     */
+    public DesignMatrix(List<Point> points, int degree) {
+        this(points, new Basis(points.get(0).getInputs().length, degree, false));
+    }
+
+    /**
+     * Creates the design matrix for the points, augmented with the specified basis.
+     * @param points the points to copy.
+     * @param basis the augmented attributes.
+     */
+    public DesignMatrix(List<Point> points, Basis basis) {
+        this(points.size(), basis);
+        this.rows = points.size();
+        for (int r = 0; r < rows; r++) {
+            Point point = points.get(r);
+            setRow(r, point.getInputs(), point.getOutput());
+        }
+    }
+
+    /**
+     * Creates an empty design matrix that can hold up to the specified number of rows. This
+     * is used as a reusable buffer, where rows are filled with setRow and setRows.
+     * @param capacity the maximum number of rows.
+     * @param basis the augmented attributes.
+     */
+    public DesignMatrix(int capacity, Basis basis) {
+        this.rows = 0;
+        this.basis = basis;
+        this.cols = basis.size();
+        this.x = new double[capacity * cols];
+        this.y = new double[capacity];
+    }
+
+    /**
+     * Creates an empty design matrix with the same shape as another.
+     * @param other the matrix to take the shape from.
+     * @param rows the number of rows.
+     */
+    private DesignMatrix(DesignMatrix other, int rows) {
+        this.rows = rows;
+        this.cols = other.cols;
+        this.basis = other.basis;
+        this.x = new double[rows * cols];
+        this.y = new double[rows];
+    }
+
+    /**
+     * Augments the inputs with the basis and writes them into a row.
+     * @param row the row to write.
+     * @param inputs the original inputs.
+     * @param output the output.
+     */
+    public void setRow(int row, double[] inputs, double output) {
+        basis.expand(inputs, x, row * cols);
+        y[row] = output;
+    }
+
+    /**
+     * Copies a row of another design matrix with the same shape into a row of this one.
+     * @param row the row to write.
+     * @param other the matrix to copy from.
+     * @param otherRow the row to copy.
+     */
+    public void copyRow(int row, DesignMatrix other, int otherRow) {
+        System.arraycopy(other.x, otherRow * cols, x, row * cols, cols);
+        y[row] = other.y[otherRow];
+    }
+
+    /**
+     * Sets the number of rows in use, when the matrix is used as a buffer.
+     * @param rows the number of rows.
+     */
+    public void setRows(int rows) {
+        this.rows = rows;
+    }
+
+    /**
+     * @return int return the maximum number of rows the matrix can hold
+     */
+    public int getCapacity() {
+        return y.length;
+    }
+
+    /**
+     * Copies the specified rows, in order, into a new design matrix.
+     * @param indices the indices of the rows to copy.
+     * @return the new design matrix.
+     */
+    public DesignMatrix subset(int[] indices) {
+        DesignMatrix result = new DesignMatrix(this, indices.length);
+        for (int r = 0; r < indices.length; r++) {
+            System.arraycopy(x, indices[r] * cols, result.x, r * cols, cols);
+            result.y[r] = y[indices[r]];
+        }
+        return result;
+    }
+
+    /**
+     * Shuffles the rows in place.
+     * @param random the source of randomness.
+     */
+    public void shuffle(Random random) {
+        double[] temp = new double[cols];
+        for (int i = rows; i > 1; i--) {
+            int a = i - 1;
+            int b = random.nextInt(i);
+
+            System.arraycopy(x, a * cols, temp, 0, cols);
+            System.arraycopy(x, b * cols, x, a * cols, cols);
+            System.arraycopy(temp, 0, x, b * cols, cols);
+
+            double out = y[a];
+            y[a] = y[b];
+            y[b] = out;
+        }
+    }
+
+    /**
+     * Calculates the predicted output of a row.
+     * @param model the weights of the hypothesis function.
+     * @param row the row to predict.
+     * @return the predicted output.
+     */
+    public double predict(double[] model, int row) {
+        int offset = row * cols;
+        double res = 0;
+        for (int j = 0; j < cols; j++) {
+            res += model[j] * x[offset + j];
+        }
+        return res;
+    }
+
+    /**
+     * @return double[] return the flat, row-major augmented inputs
+     */
+    public double[] getX() {
+        return x;
+    }
+
+    /**
+     * @return double[] return the outputs
+     */
+    public double[] getY() {
+        return y;
+    }
+
+    /**
+     * @return int return the number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * @return int return the number of augmented attributes in each row
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * @return int return the number of original inputs
+     */
+    public int getNumOfInputs() {
+        return basis.getNumOfInputs();
+    }
+
+    /**
+     * @return int return the polynomial degree
+     */
+    public int getDegree() {
+        return basis.getDegree();
+    }
+
+    /**
+     * @return Basis return the augmented attributes of each row
+     */
+    public Basis getBasis() {
+        return basis;
+    }
+}
@@ -1,5 +1,7 @@
 import java.io.*;
+import java.nio.file.NoSuchFileException;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Tanner Turba
@@ -16,7 +18,16 @@ class Driver {
     private int batchSize = 0;
     private boolean isRandom = false;
     private int verbosity = 1;
+    private String solver = "gd";
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean isStreaming = false;
+    private Optimizer optimizer = Optimizer.GD;
+    private boolean isStandardized = false;
+    private boolean isInteractions = false;
+    private Random random = new Random();
     private StringBuilder sBuilder = new StringBuilder();
+    private static final int NORMAL_EQUATION_LIMIT = 256;
+    private static final int CHUNK_SIZE = 4096;
 
     public Driver(String[] args) {
         // Sorts through command line args
@@ -58,6 +69,33 @@ class Driver {
                     verbosity = Integer.parseInt(args[++i]);
                     break;
 
+                case "-s":
+                    solver = args[++i];
+                    break;
+
+                case "-o":
+                    optimizer = Optimizer.getOptimizer(args[++i]);
+                    break;
+
+                case "-z":
+                    isStandardized = true;
+                    break;
+
+                case "-x":
+                    isInteractions = true;
+                    break;
+
+                case "-S":
+                    isStreaming = true;
+                    break;
+
+                case "-j":
+                    threads = Integer.parseInt(args[++i]);
+                    if (threads <= 0) {
+                        threads = Runtime.getRuntime().availableProcessors();
+                    }
+                    break;
+
                 default:
                     break;
             }
@@ -72,43 +110,114 @@ class Driver {
         return fileName;
     }
 
+    /**
+     * Fits a model of the specified degree, using the solver chosen from the command line.
+     * "gd" uses mini batch gradient descent, "normal" solves the normal equations directly,
+     * and "auto" solves directly whenever the number of augmented attributes is small.
+     * With standardization, the returned weights are still for the original attributes.
+     * @param data the dataset
+     * @param degree the degree
+     * @param out the buffer that output is written to
+     * @return the weights of a model.
+     */
+    private double[] fit(DesignMatrix data, int degree, StringBuilder out) {
+        int numOfAttrs = data.getCols();
+        boolean isDirect = solver.equals("normal") || (solver.equals("auto") && numOfAttrs <= NORMAL_EQUATION_LIMIT);
+
+        // Train on standardized attributes, using statistics from this training set only
+        Standardizer standardizer = null;
+        if (isStandardized) {
+            standardizer = new Standardizer(data);
+            data = standardizer.apply(data);
+            if (verbosity > 1) {
+                out.append("      * Standardized attributes using the training set\n");
+            }
+        }
+
+        double[] weights;
+        if (isDirect) {
+            weights = normalEquation(data, degree, out);
+        }
+        else {
+            weights = miniBatchGradientDescent(data, degree, out);
+        }
+
+        // Map the weights back so the model works on the original attributes
+        if (standardizer != null) {
+            weights = standardizer.unscale(weights);
+            if (verbosity > 1) {
+                out.append("      * Model for the original attributes:\n");
+                printModel(out, weights, data.getBasis());
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * Solves for the weights of a model of the specified degree in a single pass, using
+     * the normal equations instead of gradient descent.
+     * @param data the dataset
+     * @param degree the degree
+     * @param out the buffer that output is written to
+     * @return the weights of a model.
+     */
+    private double[] normalEquation(DesignMatrix data, int degree, StringBuilder out) {
+        int numOfAttrs = data.getCols();
+        if (verbosity > 1) {
+            out.append("      * Solving the normal equations\n");
+        }
+        long startTime = System.currentTimeMillis();
+        double[] weights = LeastSquares.solve(data.getX(), data.getY(), data.getRows(), numOfAttrs);
+
+        if (verbosity > 1) {
+            long totalTime = System.currentTimeMillis() - startTime;
+            out.append("      * Done with fitting!\n");
+            out.append(String.format("        Solving took %dms (%d attributes)\n", totalTime, numOfAttrs));
+            printModel(out, weights, data.getBasis());
+        }
+        return weights;
+    }
+
     /**
      * Performs mini batch gradient descent on a set of datapoints and to the specified degree.
      * @param data the dataset
      * @param degree the degree 
+     * @param out the buffer that output is written to
      * @return the weights of a model. 
      */
-    private double[] miniBatchGradientDescent(ArrayList<Point> data, int degree) {
-        // Augment points
-        for (Point point : data) {
-            point.augment(degree);
-        }
-        
-        // Init weight
-        int numOfAttrs = data.get(0).getAugmented().length;
-        ArrayList<double[]> weights = new ArrayList<>();
-        weights.add(0, new double[numOfAttrs]);
+    double[] miniBatchGradientDescent(DesignMatrix data, int degree, StringBuilder out) {
+        // Init weight, alternating between two buffers rather than keeping every iterate
+        int numOfAttrs = data.getCols();
+        double[] weight = new double[numOfAttrs];
+        double[] lastWeight = new double[numOfAttrs];
+        double[] gradient = new double[numOfAttrs];
+        double[] m = new double[numOfAttrs];
+        double[] v = new double[numOfAttrs];
         
         // Init vars and some printing
         double currentCost = 9999.0;
         double lastCost = 0.0;
-        int numberOfBatches = batchSize <= 0 ? 1 : data.size() / batchSize;
+        int numberOfBatches = batchSize <= 0 ? 1 : data.getRows() / batchSize;
         int t = 0;
         int e = 0;
         if (verbosity > 1) {
-            sBuilder.append("      * Beginning mini-batch gradient descent\n");
-            sBuilder.append(String.format("        (alpha=%f, epochLimit=%d, batchSize=%d)\n", learningRate, epochLimit, batchSize));
+            out.append("      * Beginning mini-batch gradient descent\n");
+            out.append(String.format("        (alpha=%f, epochLimit=%d, batchSize=%d)\n", learningRate, epochLimit, batchSize));
+            if (optimizer != Optimizer.GD) {
+                out.append(String.format("        (optimizer=%s)\n", optimizer.name().toLowerCase()));
+            }
         }
         if (verbosity > 2) {
-            sBuilder.append(String.format("        Initial model with zero weights   : Cost = %14.9f", calcError(data, weights.get(0)) / numberOfBatches));
+            out.append(String.format("        Initial model with zero weights   : Cost = %14.9f", calcError(data, weight) / numberOfBatches));
             if (verbosity > 3) {
-                printModel(weights.get(t), degree, data.get(0).getInputs().length);
+                printModel(out, weight, data.getBasis());
             }
             else {
-                sBuilder.append("\n");
+                out.append("\n");
             }
         }
         
+        ArrayList<int[]> batchIndices = createBatches(data, numberOfBatches);
         long startTime = System.currentTimeMillis();
         String stopReason = "        GD Stop condition: ";
         while (true) {
@@ -125,90 +234,109 @@ class Driver {
                 break;
             }
 
-            ArrayList<int[]> batchIndices = createBatches(data, numberOfBatches);
             if (isRandom) {
-                Collections.shuffle(data);
+                data.shuffle(random);
             }
 
             // For each batch
             for (int[] indices : batchIndices) {
-                double[] newWeight = new double[numOfAttrs];
+                calcGradient(data, weight, indices, gradient);
 
-                // For each k in {0, 1, 2, ..., p}
-                for (int k = 0; k < numOfAttrs; k++) {
-                    double[] oldWeight = weights.get(t);
-                    newWeight[k] = oldWeight[k] - learningRate * firstChunk(data, oldWeight, indices, k);
-                }
-                weights.add(t + 1, newWeight);
+                // Swap buffers, then write the new weight over the oldest one
+                double[] oldWeight = weight;
+                weight = lastWeight;
+                lastWeight = oldWeight;
+
+                // Update every k in {0, 1, 2, ..., p}
                 t++;
+                optimizer.update(weight, oldWeight, gradient, m, v, t, learningRate);
             }
             e++;
             lastCost = currentCost;
-            currentCost = calcError(data, weights.get(t-1)) / numberOfBatches;
+            currentCost = calcError(data, lastWeight) / numberOfBatches;
 
             // Printing
             if ((verbosity > 2 && e > 0 && e % 1000 == 0) || verbosity > 4) {
-                sBuilder.append(String.format("        After %6d epochs ( %5d iter.): Cost = %14.9f", e, t, currentCost));
+                out.append(String.format("        After %6d epochs ( %5d iter.): Cost = %14.9f", e, t, currentCost));
                 if (verbosity > 3) {
-                    printModel(weights.get(t), degree, data.get(0).getInputs().length);
+                    printModel(out, weight, data.getBasis());
                 }
                 else {
-                    sBuilder.append("\n");
+                    out.append("\n");
                 }
             }
         }
         
         // Printing
         if (verbosity > 2) {
-            sBuilder.append(String.format("        After %6d epochs ( %5d iter.): Cost = %14.9f", e, t, currentCost));
+            out.append(String.format("        After %6d epochs ( %5d iter.): Cost = %14.9f", e, t, currentCost));
             if (verbosity > 3) {
-                printModel(weights.get(t), degree, data.get(0).getInputs().length);
+                printModel(out, weight, data.getBasis());
             }
             else {
-                sBuilder.append("\n");
+                out.append("\n");
             }
         }
         if (verbosity > 1) {
             long totalTime = System.currentTimeMillis() - startTime;
-            sBuilder.append("      * Done with fitting!\n");
-            sBuilder.append(String.format("        Training took %dms, %d epochs, %d iterations (%.4fms / iteration)\n", totalTime, e, t, 9.0/totalTime));
-            sBuilder.append(stopReason);
-            printModel(weights.get(t), degree, data.get(0).getInputs().length);
+            out.append("      * Done with fitting!\n");
+            out.append(String.format("        Training took %dms, %d epochs, %d iterations (%.4fms / iteration)\n", totalTime, e, t, 9.0/totalTime));
+            out.append(stopReason);
+            printModel(out, weight, data.getBasis());
         }
 
         // Return best weight
-        return weights.get(t);
+        return weight;
     }
 
     /**
-     * Calculates the derivative that will be scaled by the step size. 
+     * Calculates the derivatives that will be scaled by the step size, for every attribute
+     * in a single pass over the batch. The error of each row is only calculated once.
      * @param data the full data set
      * @param oldWeight the most recent weight being used to calculate the new weight
      * @param batchIndices the indices of the current batch
-     * @param k the current attribute being inspected.
-     * @return
+     * @param gradient the array to write the derivative of each attribute into
      */
-    private double firstChunk(ArrayList<Point> data, double[] oldWeight, int[] batchIndices, int k) {
-        double sum = 0.0;
+    private void calcGradient(DesignMatrix data, double[] oldWeight, int[] batchIndices, double[] gradient) {
+        int cols = data.getCols();
+        Arrays.fill(gradient, 0.0);
+
         for (int i : batchIndices) {
-            Point dPoint = data.get(i);
-            sum += (-2 * dPoint.getAugmented()[k]) * innerChunk(dPoint, oldWeight);
+            addGradient(data, i, oldWeight, gradient);
         }
-        return (sum / batchIndices.length);
+        for (int k = 0; k < cols; k++) {
+            gradient[k] /= batchIndices.length;
+        }
+    }
+
+    /**
+     * Adds a single row's contribution to the (unscaled) derivatives of every attribute.
+     * @param data the full data set
+     * @param row the row to add
+     * @param oldWeight the most recent weight being used to calculate the new weight
+     * @param gradient the running sum of derivatives
+     * @return the error of the row under the old weight
+     */
+    private double addGradient(DesignMatrix data, int row, double[] oldWeight, double[] gradient) {
+        double[] x = data.getX();
+        int cols = data.getCols();
+        int offset = row * cols;
+        double error = innerChunk(data, row, oldWeight);
+        for (int k = 0; k < cols; k++) {
+            gradient[k] += (-2 * x[offset + k]) * error;
+        }
+        return error;
     }
 
     /**
      * Calculates the error in the mini batch gradient descent formula
-     * @param point the point used to calculate the error.
+     * @param data the full data set
+     * @param row the row used to calculate the error.
      * @param oldWeight the most recent weight being used to calculate the new weight.
      * @return
      */
-    private double innerChunk(Point point, double[] oldWeight) {
-        double errorSum = 0.0;
-        for (int j = 0; j < point.getAugmented().length; j++) {
-            errorSum += oldWeight[j] * point.getAugmented()[j];
-        }
-        return point.getOutput() - errorSum;
+    private double innerChunk(DesignMatrix data, int row, double[] oldWeight) {
+        return data.getY()[row] - calcPredicted(oldWeight, data, row);
     }
 
     /**
@@ -217,16 +345,16 @@ class Driver {
      * @param numberOfBatches the number of batches to create.
      * @return Sets of indices from each batch, used to index the full data set.
      */
-    private ArrayList<int[]> createBatches(ArrayList<Point> data, int numberOfBatches) {
+    private ArrayList<int[]> createBatches(DesignMatrix data, int numberOfBatches) {
         ArrayList<int[]> batchIndices = new ArrayList<>();
         for (int b = 0; b < numberOfBatches; b++) {
             // Determine array sizes.
             int size = batchSize; 
             if (numberOfBatches == 1) {
-                size = data.size();
+                size = data.getRows();
             }
-            else if (data.size() % batchSize != 0 && b == numberOfBatches - 1) {
-                size = data.size() % batchSize;
+            else if (data.getRows() % batchSize != 0 && b == numberOfBatches - 1) {
+                size = data.getRows() % batchSize;
             }
 
             // Load with indices
@@ -240,23 +368,49 @@ class Driver {
     }
 
     /**
-     * Retrieves a fold from the specified dataset
-     * @param data the full dataset
+     * Retrieves the row indices of a fold from a dataset of the specified size
+     * @param size the number of rows in the full dataset
      * @param fold the numbered fold to retrieve
-     * @return
+     * @return the indices of the rows in the fold, from back to front
      */
-    private ArrayList<Point> getFold(ArrayList<Point> data, int fold) {
-        ArrayList<Point> result = new ArrayList<>();
+    private int[] getFold(int size, int fold) {
+        int start = size + fold - kFolds;
+        int[] result = new int[start < 0 ? 0 : (start / kFolds) + 1];
         
-        // Loop from back to end so indexes aren't affected when removing elements
-        for (int i = data.size() + fold - kFolds; i >= 0; i -= kFolds) {
-            result.add(data.remove(i));
+        // Loop from back to front, matching the order the fold was originally removed in
+        int r = 0;
+        for (int i = start; i >= 0; i -= kFolds) {
+            result[r++] = i;
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves the row indices of everything outside a fold
+     * @param size the number of rows in the full dataset
+     * @param fold the indices of the rows in the fold
+     * @return the indices of the remaining rows, in order
+     */
+    private int[] getComplement(int size, int[] fold) {
+        boolean[] isInFold = new boolean[size];
+        for (int i : fold) {
+            isInFold[i] = true;
+        }
+
+        int[] result = new int[size - fold.length];
+        int r = 0;
+        for (int i = 0; i < size; i++) {
+            if (!isInFold[i]) {
+                result[r++] = i;
+            }
         }
         return result;
     }
 
     /**
      * Performs linear regression on a set of datapoints, which is a labeled set of data.
+     * Every (degree, fold) pair is fit independently, so they are run concurrently and
+     * each one's output is buffered until the report is assembled in the original order.
      * @param dataPoints a list of labeled data to train on.
      */
     public void regression(ArrayList<Point> dataPoints) {
@@ -267,128 +421,534 @@ class Driver {
         if (kFolds <= 1) {
             sBuilder.append("\nSkipping cross-validation.\n");
         }
+        int numOfDegrees = Math.max(0, maxPolyDegree - minPolyDegree + 1);
+        int numOfFolds = kFolds > 1 ? kFolds : 1;
         
+        // Create a task for each degree and fold. Shuffling is done up front, in order,
+        // so each degree sees the same data as it would when run sequentially.
+        ArrayList<Callable<double[]>> tasks = new ArrayList<>();
+        StringBuilder[] outputs = new StringBuilder[numOfDegrees * numOfFolds];
+        for (int degree = minPolyDegree; degree <= maxPolyDegree; degree++) {
+            if (kFolds > 1 && isRandom) {
+                Collections.shuffle(dataPoints);
+            }
+
+            // Augment all of the data once for this degree
+            DesignMatrix allData = new DesignMatrix(dataPoints, new Basis(dataPoints.get(0).getInputs().length, degree, isInteractions));
+            for (int currentFold = 0; currentFold < numOfFolds; currentFold++) {
+                int d = degree;
+                int fold = kFolds > 1 ? currentFold : -1;
+                StringBuilder out = new StringBuilder();
+                outputs[tasks.size()] = out;
+                tasks.add(() -> runFold(allData, d, fold, out));
+            }
+        }
+        List<double[]> errors = runTasks(tasks);
+
+        // Assemble the report
+        int task = 0;
         for (int degree = minPolyDegree; degree <= maxPolyDegree; degree++) {
             sBuilder.append("----------------------------------\n");
             sBuilder.append(String.format("* Using model of degree %d\n", degree));
             if (kFolds > 1) {
                 double totalValError = 0.0;
                 double totalTrainError = 0.0;
-                if (isRandom) {
-                    Collections.shuffle(dataPoints);
-                }
-                
                 for (int currentFold = 0; currentFold < kFolds; currentFold++) {
-                    // Remove data that is in current fold.
-                    ArrayList<Point> trainingSet = new ArrayList<>(dataPoints);
-                    ArrayList<Point> x = getFold(trainingSet, currentFold);
-                    ArrayList<Point> validationSet = new ArrayList<>(x);
-                    x.clear();
-                    
-                    // Copy to array and fit.
-                    sBuilder.append(String.format("  * Training on all data except Fold %d (%d examples)\n", currentFold + 1, trainingSet.size()));
-                    double[] fittedModel = miniBatchGradientDescent(trainingSet, degree);
-                    
-                    // Report training error.
-                    double trainingError = calcError(trainingSet, fittedModel);
-                    totalTrainError += trainingError;
-                    
-                    // Estimate validation error of fitted model on augmented validationSet.
-                    for (Point point : validationSet) {
-                        point.augment(degree);
-                    }
-                    double validationError = calcError(validationSet, fittedModel);
-                    totalValError += validationError;
-                    
-                    sBuilder.append(String.format("  * Training and validation errors:     %.6f     %.6f\n\n", trainingError, validationError));
+                    sBuilder.append(outputs[task]);
+                    totalTrainError += errors.get(task)[0];
+                    totalValError += errors.get(task)[1];
+                    task++;
                 }
                 // Compute average validation error across the folds
                 sBuilder.append(String.format("  * Average errors across the folds:    %.6f     %.6f\n", totalTrainError/kFolds, totalValError/kFolds));
             }
             else {
-                sBuilder.append(String.format("  * Training on all data (%d examples):\n", dataPoints.size()));
+                sBuilder.append(outputs[task]);
+                task++;
+            }
+        }
+        System.out.println(sBuilder.toString());
+    }
+
+    /**
+     * Fits a model on all data except one fold and reports its errors. Each call works on
+     * its own copies of the rows, so calls may run concurrently.
+     * @param allData the augmented dataset, which is not modified
+     * @param degree the degree
+     * @param fold the numbered fold to hold out, or -1 to train on all data
+     * @param out the buffer that output is written to
+     * @return the training and validation errors
+     */
+    private double[] runFold(DesignMatrix allData, int degree, int fold, StringBuilder out) {
+        if (fold < 0) {
+            out.append(String.format("  * Training on all data (%d examples):\n", allData.getRows()));
+
+            // Fit a polynomial of degree d to all data and report training error.
+            // No other task uses this degree's data, so it can be trained on directly.
+            double[] fittedModel = fit(allData, degree, out);
 
-                // Fit a polynomial of degree d to all data and report training error.
-                double[] fittedModel = miniBatchGradientDescent(dataPoints, degree);
+            // Output
+            if (verbosity > 1) {
+                printModel(out, fittedModel, allData.getBasis());
+            }
+
+            double trainingError = calcError(allData, fittedModel);
+            out.append(String.format("  * Training error:        %f\n\n", trainingError));
+            return new double[] { trainingError, 0.0 };
+        }
+
+        // Separate the rows that are in the current fold.
+        int[] foldIndices = getFold(allData.getRows(), fold);
+        DesignMatrix trainingSet = allData.subset(getComplement(allData.getRows(), foldIndices));
+        DesignMatrix validationSet = allData.subset(foldIndices);
+        
+        // Fit.
+        out.append(String.format("  * Training on all data except Fold %d (%d examples)\n", fold + 1, trainingSet.getRows()));
+        double[] fittedModel = fit(trainingSet, degree, out);
+        
+        // Report training error.
+        double trainingError = calcError(trainingSet, fittedModel);
+        
+        // Estimate validation error of fitted model on augmented validationSet.
+        double validationError = calcError(validationSet, fittedModel);
+        
+        out.append(String.format("  * Training and validation errors:     %.6f     %.6f\n\n", trainingError, validationError));
+        return new double[] { trainingError, validationError };
+    }
 
-                // Output
-                if (verbosity > 1) {
-                    printModel(fittedModel, degree, dataPoints.get(0).getInputs().length);
+    /**
+     * Runs the tasks on a fork-join pool with the number of threads chosen from the
+     * command line, or in order on the current thread if only one thread is used.
+     * @param tasks the tasks to run
+     * @return the results of each task, in the same order as the tasks
+     */
+    private List<double[]> runTasks(List<Callable<double[]>> tasks) {
+        List<double[]> results = new ArrayList<>();
+        try {
+            if (threads == 1 || tasks.size() <= 1) {
+                for (Callable<double[]> task : tasks) {
+                    results.add(task.call());
                 }
+                return results;
+            }
 
-                double trainingError = calcError(dataPoints, fittedModel);
-                sBuilder.append(String.format("  * Training error:        %f\n\n", trainingError));
+            ForkJoinPool pool = new ForkJoinPool(Math.min(threads, tasks.size()));
+            try {
+                for (Future<double[]> future : pool.invokeAll(tasks)) {
+                    results.add(future.get());
+                }
+            }
+            finally {
+                pool.shutdown();
             }
         }
+        catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        return results;
+    }
+
+    /**
+     * Performs linear regression by streaming the data file instead of loading it. Rows are
+     * read in chunks, so memory use is bounded by the chunk size rather than the file size.
+     * Each fold holds out every row whose index modulo k equals the fold number.
+     */
+    public void streamRegression() {
+        // set max if not specified
+        if (maxPolyDegree == -1) {
+            maxPolyDegree = minPolyDegree;
+        }
+        if (kFolds <= 1) {
+            sBuilder.append("\nSkipping cross-validation.\n");
+        }
+
+        try {
+            for (int degree = minPolyDegree; degree <= maxPolyDegree; degree++) {
+                sBuilder.append("----------------------------------\n");
+                sBuilder.append(String.format("* Using model of degree %d\n", degree));
+
+                double totalValError = 0.0;
+                double totalTrainError = 0.0;
+                int numOfFolds = kFolds > 1 ? kFolds : 1;
+                for (int currentFold = 0; currentFold < numOfFolds; currentFold++) {
+                    int fold = kFolds > 1 ? currentFold : -1;
+
+                    // Fit, then make one more pass to find the errors of the model
+                    StringBuilder out = new StringBuilder();
+                    double[] fittedModel = streamFit(degree, fold, out);
+                    double[] errors = streamErrors(degree, fold, fittedModel);
+
+                    if (fold < 0) {
+                        sBuilder.append(String.format("  * Training on all data (%d examples):\n", (long)errors[2]));
+                        sBuilder.append(out);
+                        if (verbosity > 1) {
+                            printModel(sBuilder, fittedModel, streamBasis(degree));
+                        }
+                        sBuilder.append(String.format("  * Training error:        %f\n\n", errors[0]));
+                    }
+                    else {
+                        sBuilder.append(String.format("  * Training on all data except Fold %d (%d examples)\n", fold + 1, (long)errors[2]));
+                        sBuilder.append(out);
+                        sBuilder.append(String.format("  * Training and validation errors:     %.6f     %.6f\n\n", errors[0], errors[1]));
+                        totalTrainError += errors[0];
+                        totalValError += errors[1];
+                    }
+                }
+                if (kFolds > 1) {
+                    // Compute average validation error across the folds
+                    sBuilder.append(String.format("  * Average errors across the folds:    %.6f     %.6f\n", totalTrainError/kFolds, totalValError/kFolds));
+                }
+            }
+        }
+        catch (IOException e) {
+            System.err.println("Unable to read " + fileName + ": " + e.getMessage());
+        }
         System.out.println(sBuilder.toString());
     }
 
+    /**
+     * Determines if a row of the file is held out for validation.
+     * @param row the index of the row within the file
+     * @param fold the fold being held out, or -1 if none is
+     * @return true if the row is in the fold
+     */
+    private boolean isInFold(long row, int fold) {
+        return fold >= 0 && row % kFolds == fold;
+    }
+
+    /**
+     * Finds the augmented attributes of the streamed file, which reads only its first row.
+     * @param degree the degree
+     * @return the basis
+     * @throws IOException if the file cannot be read
+     */
+    private Basis streamBasis(int degree) throws IOException {
+        try (DataStream stream = new DataStream(fileName, degree, isInteractions, 1)) {
+            return stream.getBasis();
+        }
+    }
+
+    /**
+     * Fits a model of the specified degree over the streamed file, using the solver chosen
+     * from the command line.
+     * @param degree the degree
+     * @param fold the fold being held out, or -1 if none is
+     * @param out the buffer that output is written to
+     * @return the weights of a model.
+     * @throws IOException if the file cannot be read
+     */
+    private double[] streamFit(int degree, int fold, StringBuilder out) throws IOException {
+        int numOfAttrs = streamBasis(degree).size();
+        boolean isDirect = solver.equals("normal") || (solver.equals("auto") && numOfAttrs <= NORMAL_EQUATION_LIMIT);
+        if (isDirect) {
+            double[] weights = streamNormalEquation(degree, fold, out);
+            if (weights != null) {
+                return weights;
+            }
+            out.append("        X^T X is singular, falling back to gradient descent\n");
+        }
+        return streamGradientDescent(degree, fold, out);
+    }
+
+    /**
+     * Solves the normal equations by accumulating X^T X and X^T y over a single pass of
+     * the file, so only the p x p sums are ever held in memory.
+     * @param degree the degree
+     * @param fold the fold being held out, or -1 if none is
+     * @param out the buffer that output is written to
+     * @return the weights of a model, or null if X^T X is singular.
+     * @throws IOException if the file cannot be read
+     */
+    private double[] streamNormalEquation(int degree, int fold, StringBuilder out) throws IOException {
+        if (verbosity > 1) {
+            out.append("      * Accumulating the normal equations\n");
+        }
+        long startTime = System.currentTimeMillis();
+
+        double[] xtx = null;
+        double[] xty = null;
+        int numOfAttrs = 0;
+        Basis basis = null;
+        try (DataStream stream = new DataStream(fileName, degree, isInteractions, CHUNK_SIZE)) {
+            DesignMatrix chunk;
+            while ((chunk = stream.next()) != null) {
+                if (xtx == null) {
+                    basis = chunk.getBasis();
+                    numOfAttrs = chunk.getCols();
+                    xtx = new double[numOfAttrs * numOfAttrs];
+                    xty = new double[numOfAttrs];
+                }
+                for (int i = 0; i < chunk.getRows(); i++) {
+                    if (!isInFold(stream.getFirstRow() + i, fold)) {
+                        LeastSquares.accumulate(chunk.getX(), chunk.getY(), i, numOfAttrs, xtx, xty);
+                    }
+                }
+            }
+        }
+        if (xtx == null) {
+            return new double[0];
+        }
+        LeastSquares.mirror(xtx, numOfAttrs);
+        double[] weights = LeastSquares.solveNormal(xtx, xty, numOfAttrs);
+
+        if (verbosity > 1 && weights != null) {
+            long totalTime = System.currentTimeMillis() - startTime;
+            out.append("      * Done with fitting!\n");
+            out.append(String.format("        Solving took %dms (%d attributes)\n", totalTime, numOfAttrs));
+            printModel(out, weights, basis);
+        }
+        return weights;
+    }
+
+    /**
+     * Performs mini batch gradient descent over the streamed file, making one pass of the
+     * file per epoch. Rows are copied into a batch buffer as they are read, and the cost of
+     * each epoch is the error of each row under the weight in use when it was read.
+     * @param degree the degree
+     * @param fold the fold being held out, or -1 if none is
+     * @param out the buffer that output is written to
+     * @return the weights of a model.
+     * @throws IOException if the file cannot be read
+     */
+    private double[] streamGradientDescent(int degree, int fold, StringBuilder out) throws IOException {
+        double[] weight = null;
+        double[] lastWeight = null;
+        double[] gradient = null;
+        double[] m = null;
+        double[] v = null;
+        DesignMatrix batch = null;
+
+        // Init vars and some printing
+        double currentCost = 9999.0;
+        double lastCost = 0.0;
+        int t = 0;
+        int e = 0;
+        if (verbosity > 1) {
+            out.append("      * Beginning streaming mini-batch gradient descent\n");
+            out.append(String.format("        (alpha=%f, epochLimit=%d, batchSize=%d)\n", learningRate, epochLimit, batchSize));
+            if (optimizer != Optimizer.GD) {
+                out.append(String.format("        (optimizer=%s)\n", optimizer.name().toLowerCase()));
+            }
+        }
+
+        long startTime = System.currentTimeMillis();
+        String stopReason = "        GD Stop condition: ";
+        while (true) {
+            if (e > epochLimit) {
+                stopReason += "epochLimit reached\n";
+                break;
+            }
+            else if (currentCost <= Math.pow(10, -10)) {
+                stopReason += "CurrentCost ~= 0\n";
+                break;
+            }
+            else if (Math.abs(lastCost - currentCost) <= Math.pow(10, -10)) {
+                stopReason += "DeltaCost ~= 0\n";
+                break;
+            }
+
+            double errorSum = 0.0;
+            long rows = 0;
+            int batchRows = 0;
+            try (DataStream stream = new DataStream(fileName, degree, isInteractions, CHUNK_SIZE)) {
+                DesignMatrix chunk;
+                while ((chunk = stream.next()) != null) {
+                    if (weight == null) {
+                        // Size the buffers on the first chunk
+                        int numOfAttrs = chunk.getCols();
+                        weight = new double[numOfAttrs];
+                        lastWeight = new double[numOfAttrs];
+                        gradient = new double[numOfAttrs];
+                        m = new double[numOfAttrs];
+                        v = new double[numOfAttrs];
+                        batch = new DesignMatrix(batchSize > 0 ? batchSize : CHUNK_SIZE, chunk.getBasis());
+                    }
+
+                    for (int i = 0; i < chunk.getRows(); i++) {
+                        if (isInFold(stream.getFirstRow() + i, fold)) {
+                            continue;
+                        }
+                        batch.copyRow(batchRows, chunk, i);
+                        batchRows++;
+                        rows++;
+
+                        if (batchRows == batch.getCapacity()) {
+                            if (batchSize > 0) {
+                                errorSum += streamStep(batch, batchRows, batchRows, weight, lastWeight, gradient, m, v, t + 1);
+                                double[] oldWeight = weight;
+                                weight = lastWeight;
+                                lastWeight = oldWeight;
+                                t++;
+                            }
+                            else {
+                                // Full batch, so keep summing the gradient until the end of the file
+                                for (int r = 0; r < batchRows; r++) {
+                                    double error = addGradient(batch, r, weight, gradient);
+                                    errorSum += error * error;
+                                }
+                            }
+                            batchRows = 0;
+                        }
+                    }
+                }
+            }
+            if (weight == null) {
+                return new double[0];
+            }
+
+            // Finish the last partial batch, or the full batch
+            if (batchSize > 0 && batchRows > 0) {
+                errorSum += streamStep(batch, batchRows, batchRows, weight, lastWeight, gradient, m, v, t + 1);
+                double[] oldWeight = weight;
+                weight = lastWeight;
+                lastWeight = oldWeight;
+                t++;
+            }
+            else if (batchSize <= 0 && rows > 0) {
+                errorSum += streamStep(batch, batchRows, rows, weight, lastWeight, gradient, m, v, t + 1);
+                double[] oldWeight = weight;
+                weight = lastWeight;
+                lastWeight = oldWeight;
+                t++;
+            }
+
+            int numberOfBatches = batchSize <= 0 ? 1 : (int)Math.max(1, rows / batchSize);
+            e++;
+            lastCost = currentCost;
+            currentCost = (errorSum / Math.max(1, rows)) / numberOfBatches;
+
+            // Printing
+            if ((verbosity > 2 && e > 0 && e % 1000 == 0) || verbosity > 4) {
+                out.append(String.format("        After %6d epochs ( %5d iter.): Cost = %14.9f\n", e, t, currentCost));
+            }
+        }
+
+        // Printing
+        if (verbosity > 2) {
+            out.append(String.format("        After %6d epochs ( %5d iter.): Cost = %14.9f\n", e, t, currentCost));
+        }
+        if (verbosity > 1) {
+            long totalTime = System.currentTimeMillis() - startTime;
+            out.append("      * Done with fitting!\n");
+            out.append(String.format("        Training took %dms, %d epochs, %d iterations\n", totalTime, e, t));
+            out.append(stopReason);
+            printModel(out, weight, batch.getBasis());
+        }
+        return weight;
+    }
+
+    /**
+     * Takes one gradient descent step with the rows in a batch buffer. The new weight is
+     * written into lastWeight, which the caller then swaps with weight.
+     * @param batch the batch buffer
+     * @param batchRows the number of rows in the buffer that have not been added yet
+     * @param count the total number of rows the gradient covers
+     * @param weight the current weight
+     * @param lastWeight the buffer the new weight is written into
+     * @param gradient the gradient, which may already hold sums from earlier rows
+     * @param m the first state array of the optimizer
+     * @param v the second state array of the optimizer
+     * @param t the number of this update, starting at 1
+     * @return the sum of squared errors of the rows added
+     */
+    private double streamStep(DesignMatrix batch, int batchRows, long count, double[] weight, double[] lastWeight, double[] gradient, double[] m, double[] v, int t) {
+        double errorSum = 0.0;
+        for (int r = 0; r < batchRows; r++) {
+            double error = addGradient(batch, r, weight, gradient);
+            errorSum += error * error;
+        }
+        for (int k = 0; k < weight.length; k++) {
+            gradient[k] /= count;
+        }
+        optimizer.update(lastWeight, weight, gradient, m, v, t, learningRate);
+        Arrays.fill(gradient, 0.0);
+        return errorSum;
+    }
+
+    /**
+     * Calculates the training and validation errors of a model over the streamed file.
+     * @param degree the degree
+     * @param fold the fold being held out, or -1 if none is
+     * @param model the model
+     * @return the training error, validation error, and number of training rows
+     * @throws IOException if the file cannot be read
+     */
+    private double[] streamErrors(int degree, int fold, double[] model) throws IOException {
+        double trainingSum = 0.0;
+        double validationSum = 0.0;
+        long trainingRows = 0;
+        long validationRows = 0;
+        try (DataStream stream = new DataStream(fileName, degree, isInteractions, CHUNK_SIZE)) {
+            DesignMatrix chunk;
+            while ((chunk = stream.next()) != null) {
+                for (int i = 0; i < chunk.getRows(); i++) {
+                    double error = Math.pow(chunk.getY()[i] - calcPredicted(model, chunk, i), 2);
+                    if (isInFold(stream.getFirstRow() + i, fold)) {
+                        validationSum += error;
+                        validationRows++;
+                    }
+                    else {
+                        trainingSum += error;
+                        trainingRows++;
+                    }
+                }
+            }
+        }
+        return new double[] { trainingSum / Math.max(1, trainingRows), validationSum / Math.max(1, validationRows), trainingRows };
+    }
+
     /**
      * Calculates the error from a model based on a training set.
      * @param set the training set
      * @param model the model
      * @return
      */
-    private double calcError(ArrayList<Point> set, double[] model) {
+    private double calcError(DesignMatrix set, double[] model) {
+        double[] y = set.getY();
         double error = 0.0;
-        for (int i = 0; i < set.size(); i++) {
-            Point p = set.get(i);
-            error += Math.pow(p.getOutput() - calcPredicted(model, p.getAugmented()) , 2);
+        for (int i = 0; i < set.getRows(); i++) {
+            error += Math.pow(y[i] - calcPredicted(model, set, i) , 2);
         }
-        return error / set.size();
+        return error / set.getRows();
     }
 
     /**
      * Calculates the predicted output
      * @param hypo the weights of the hypothesis function
-     * @param input the inputs from the training set
+     * @param set the set containing the inputs
+     * @param row the row of the inputs in the set
      * @return
      */
-    private double calcPredicted(double[] hypo, double[] input) {
-        double res = 0;
-        for (int i = 0; i < input.length; i++) {
-            res += hypo[i] * input[i];
-        }
-        return res;
+    private double calcPredicted(double[] hypo, DesignMatrix set, int row) {
+        return set.predict(hypo, row);
     }
 
     /**
-     * Converts the model to a string for printing to output.
+     * Converts the model to a string for printing to output, naming each weight by the
+     * augmented attribute it multiplies.
+     * @param out the buffer that output is written to
      * @param model the model to display
-     * @param degree the highest degree that is used
-     * @param attrCount the number of attributes
+     * @param basis the augmented attributes of the model
      */
-    private void printModel(double[] model, int degree, int attrCount) {
-        sBuilder.append("        Model: Y = ");
-        int attr = 0;
-        int deg = 0;
+    private void printModel(StringBuilder out, double[] model, Basis basis) {
+        out.append("        Model: Y = ");
         for (int i = 0; i < model.length; i++) {
-            sBuilder.append(String.format("%.4f", Math.abs(model[i])));
+            out.append(String.format("%.4f", Math.abs(model[i])));
 
-            if (attr > 0) {
-                sBuilder.append(String.format(" X%d", attr));
-            }
-            if (deg > 1) {
-                sBuilder.append(String.format("^%d", deg));
+            if (i > 0) {
+                out.append(String.format(" %s", basis.getLabel(i)));
             }
 
             if (i + 1 < model.length) {
                 if (model[i + 1] < 0) {
-                    sBuilder.append(" - ");
+                    out.append(" - ");
                 }
                 else {
-                    sBuilder.append(" + ");
+                    out.append(" + ");
                 }
             }
-
-            if (attr < attrCount) {
-                attr++;
-            }
-            if (deg < degree) {
-                deg++;
-            }
         }
-        sBuilder.append("\n");
+        out.append("\n");
     }
 
     public static void main(String[] args) {
@@ -402,26 +962,34 @@ class Driver {
             return;
         }
 
+        // Stream the file rather than loading it, if requested. Streamed rows are read in
+        // file order and never held together, so they cannot be shuffled or standardized.
+        if (driver.isStreaming) {
+            if (driver.isStandardized || driver.isRandom) {
+                System.err.println("Streaming (-S) does not support standardization (-z) or shuffling (-r)");
+                return;
+            }
+            driver.streamRegression();
+            return;
+        }
+
         // Load full data set from file
-        try {
-            Scanner scanner = new Scanner(new File(fileName));
-
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine().trim();
-                if (line.charAt(0) != '#') {
-                    // Not a comment, so split by spaces and continue
-                    String[] vals = line.split(" ");
-    
-                    if (vals.length > 1) {
-                        dataPoints.add(new Point(vals));
-                    }
+        try (NumberReader reader = NumberReader.open(fileName)) {
+            int count;
+            while ((count = reader.next()) != -1) {
+                // Rows need at least one input and an output
+                if (count > 1) {
+                    double[] vals = reader.getValues();
+                    dataPoints.add(new Point(Arrays.copyOf(vals, count - 1), vals[count - 1]));
                 }
             }
-            scanner.close();
         } 
-        catch (FileNotFoundException e) {
+        catch (NoSuchFileException e) {
             System.err.println("No such file or directory: " + driver.fileName);
         }
+        catch (IOException e) {
+            System.err.println("Unable to read " + driver.fileName + ": " + e.getMessage());
+        }
 
         // Perform regression
         driver.regression(dataPoints);
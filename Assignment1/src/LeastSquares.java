@@ -0,0 +1,199 @@
+/**
+ * Tanner Turba
+ * CS 557 - Machine Learning
+ * Solves the least-squares problem for a design matrix directly instead of iterating
+ * with gradient descent. The normal equations X^T X w = X^T y are solved with a Cholesky
+ * factorization, falling back to a Householder QR factorization of X when X^T X is not
+ * positive definite (ie. the columns are nearly dependent).
+ */
+public class LeastSquares {
+    private static final double TOLERANCE = Math.pow(10, -12);
+
+    /**
+     * Finds the weights that minimize the squared error of a design matrix.
+     * @param x the design matrix, stored row-major in a flat array of rows * cols values
+     * @param y the outputs of each row
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @return the weights of the model
+     */
+    public static double[] solve(double[] x, double[] y, int rows, int cols) {
+        double[] xtx = new double[cols * cols];
+        double[] xty = new double[cols];
+
+        // Accumulate X^T X and X^T y in one pass over the rows
+        for (int r = 0; r < rows; r++) {
+            accumulate(x, y, r, cols, xtx, xty);
+        }
+        mirror(xtx, cols);
+
+        double[] weights = solveNormal(xtx, xty, cols);
+        if (weights == null) {
+            weights = solveQR(x, y, rows, cols);
+        }
+        return weights;
+    }
+
+    /**
+     * Adds a single row's contribution to the upper triangle of X^T X and to X^T y. This
+     * lets the sums be built up incrementally, without holding every row in memory.
+     * @param x the design matrix, stored row-major
+     * @param y the outputs of each row
+     * @param row the row to add
+     * @param cols the number of columns
+     * @param xtx the running X^T X, stored row-major
+     * @param xty the running X^T y
+     */
+    public static void accumulate(double[] x, double[] y, int row, int cols, double[] xtx, double[] xty) {
+        int offset = row * cols;
+        double out = y[row];
+        for (int i = 0; i < cols; i++) {
+            double xi = x[offset + i];
+            xty[i] += xi * out;
+            for (int j = i; j < cols; j++) {
+                xtx[i * cols + j] += xi * x[offset + j];
+            }
+        }
+    }
+
+    /**
+     * Copies the upper triangle of X^T X into its lower triangle.
+     * @param xtx the matrix, stored row-major
+     * @param cols the number of columns
+     */
+    public static void mirror(double[] xtx, int cols) {
+        for (int i = 0; i < cols; i++) {
+            for (int j = 0; j < i; j++) {
+                xtx[i * cols + j] = xtx[j * cols + i];
+            }
+        }
+    }
+
+    /**
+     * Solves the normal equations with a Cholesky factorization.
+     * @param xtx the symmetric matrix X^T X, stored row-major
+     * @param xty the vector X^T y
+     * @param cols the number of columns
+     * @return the weights, or null if X^T X is not positive definite
+     */
+    public static double[] solveNormal(double[] xtx, double[] xty, int cols) {
+        // Factor X^T X = L L^T, with L stored in the lower triangle
+        double[] l = new double[cols * cols];
+        for (int i = 0; i < cols; i++) {
+            for (int j = 0; j <= i; j++) {
+                double sum = xtx[i * cols + j];
+                for (int k = 0; k < j; k++) {
+                    sum -= l[i * cols + k] * l[j * cols + k];
+                }
+
+                if (i == j) {
+                    if (sum <= TOLERANCE * Math.max(1.0, Math.abs(xtx[i * cols + i]))) {
+                        return null;
+                    }
+                    l[i * cols + i] = Math.sqrt(sum);
+                }
+                else {
+                    l[i * cols + j] = sum / l[j * cols + j];
+                }
+            }
+        }
+
+        // Forward substitution for L z = X^T y
+        double[] z = new double[cols];
+        for (int i = 0; i < cols; i++) {
+            double sum = xty[i];
+            for (int k = 0; k < i; k++) {
+                sum -= l[i * cols + k] * z[k];
+            }
+            z[i] = sum / l[i * cols + i];
+        }
+
+        // Back substitution for L^T w = z
+        double[] weights = new double[cols];
+        for (int i = cols - 1; i >= 0; i--) {
+            double sum = z[i];
+            for (int k = i + 1; k < cols; k++) {
+                sum -= l[k * cols + i] * weights[k];
+            }
+            weights[i] = sum / l[i * cols + i];
+        }
+        return weights;
+    }
+
+    /**
+     * Solves the least-squares problem with a Householder QR factorization of the design
+     * matrix. Columns that are dependent on earlier columns are given a weight of zero.
+     * @param x the design matrix, stored row-major
+     * @param y the outputs of each row
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @return the weights of the model
+     */
+    public static double[] solveQR(double[] x, double[] y, int rows, int cols) {
+        double[] a = x.clone();
+        double[] b = y.clone();
+        double[] diag = new double[cols];
+        int steps = Math.min(rows, cols);
+
+        for (int k = 0; k < steps; k++) {
+            // Norm of the column below the diagonal
+            double norm = 0.0;
+            for (int r = k; r < rows; r++) {
+                norm = Math.hypot(norm, a[r * cols + k]);
+            }
+            if (norm == 0.0) {
+                continue;
+            }
+            if (a[k * cols + k] < 0) {
+                norm = -norm;
+            }
+
+            // Build the Householder vector in place
+            for (int r = k; r < rows; r++) {
+                a[r * cols + k] /= norm;
+            }
+            a[k * cols + k] += 1.0;
+
+            // Apply the reflection to the remaining columns and to y
+            for (int j = k + 1; j < cols; j++) {
+                double s = 0.0;
+                for (int r = k; r < rows; r++) {
+                    s += a[r * cols + k] * a[r * cols + j];
+                }
+                s = -s / a[k * cols + k];
+                for (int r = k; r < rows; r++) {
+                    a[r * cols + j] += s * a[r * cols + k];
+                }
+            }
+            double s = 0.0;
+            for (int r = k; r < rows; r++) {
+                s += a[r * cols + k] * b[r];
+            }
+            s = -s / a[k * cols + k];
+            for (int r = k; r < rows; r++) {
+                b[r] += s * a[r * cols + k];
+            }
+            diag[k] = -norm;
+        }
+
+        // Back substitution for R w = Q^T y
+        double[] weights = new double[cols];
+        double limit = 0.0;
+        for (int k = 0; k < steps; k++) {
+            limit = Math.max(limit, Math.abs(diag[k]));
+        }
+        limit *= TOLERANCE;
+        for (int i = steps - 1; i >= 0; i--) {
+            if (Math.abs(diag[i]) <= limit) {
+                weights[i] = 0.0;
+                continue;
+            }
+            double sum = b[i];
+            for (int j = i + 1; j < cols; j++) {
+                sum -= a[i * cols + j] * weights[j];
+            }
+            weights[i] = sum / diag[i];
+        }
+        return weights;
+    }
+}
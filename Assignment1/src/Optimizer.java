@@ -0,0 +1,102 @@
+/**
+ * Tanner Turba
+ * CS 557 - Machine Learning
+ * The update rules that gradient descent can use. Each option writes the next weight from
+ * the previous weight and the gradient of a batch. Any per-attribute state (velocities and
+ * squared-gradient averages) is kept in arrays owned by the caller, which are allocated once
+ * per fit, so nothing is allocated inside the epoch loop.
+ */
+public enum Optimizer {
+    GD {
+        @Override
+        public void update(double[] weight, double[] oldWeight, double[] gradient, double[] m, double[] v, int t, double alpha) {
+            for (int k = 0; k < weight.length; k++) {
+                weight[k] = oldWeight[k] - alpha * gradient[k];
+            }
+        }
+    },
+    MOMENTUM {
+        @Override
+        public void update(double[] weight, double[] oldWeight, double[] gradient, double[] m, double[] v, int t, double alpha) {
+            for (int k = 0; k < weight.length; k++) {
+                m[k] = MOMENTUM_DECAY * m[k] - alpha * gradient[k];
+                weight[k] = oldWeight[k] + m[k];
+            }
+        }
+    },
+    NESTEROV {
+        @Override
+        public void update(double[] weight, double[] oldWeight, double[] gradient, double[] m, double[] v, int t, double alpha) {
+            // Uses the look-ahead form that only needs the gradient at the current weight
+            for (int k = 0; k < weight.length; k++) {
+                double lastVelocity = m[k];
+                m[k] = MOMENTUM_DECAY * m[k] - alpha * gradient[k];
+                weight[k] = oldWeight[k] - MOMENTUM_DECAY * lastVelocity + (1 + MOMENTUM_DECAY) * m[k];
+            }
+        }
+    },
+    RMSPROP {
+        @Override
+        public void update(double[] weight, double[] oldWeight, double[] gradient, double[] m, double[] v, int t, double alpha) {
+            for (int k = 0; k < weight.length; k++) {
+                v[k] = SQUARE_DECAY * v[k] + (1 - SQUARE_DECAY) * gradient[k] * gradient[k];
+                weight[k] = oldWeight[k] - alpha * gradient[k] / (Math.sqrt(v[k]) + EPSILON);
+            }
+        }
+    },
+    ADAM {
+        @Override
+        public void update(double[] weight, double[] oldWeight, double[] gradient, double[] m, double[] v, int t, double alpha) {
+            // Bias corrections for the zero-initialized averages
+            double mCorrection = 1 - Math.pow(ADAM_DECAY_1, t);
+            double vCorrection = 1 - Math.pow(ADAM_DECAY_2, t);
+            for (int k = 0; k < weight.length; k++) {
+                m[k] = ADAM_DECAY_1 * m[k] + (1 - ADAM_DECAY_1) * gradient[k];
+                v[k] = ADAM_DECAY_2 * v[k] + (1 - ADAM_DECAY_2) * gradient[k] * gradient[k];
+                weight[k] = oldWeight[k] - alpha * (m[k] / mCorrection) / (Math.sqrt(v[k] / vCorrection) + EPSILON);
+            }
+        }
+    };
+
+    private static final double MOMENTUM_DECAY = 0.9;
+    private static final double SQUARE_DECAY = 0.9;
+    private static final double ADAM_DECAY_1 = 0.9;
+    private static final double ADAM_DECAY_2 = 0.999;
+    private static final double EPSILON = Math.pow(10, -8);
+
+    /**
+     * Writes the next weight.
+     * @param weight the array to write the new weight into
+     * @param oldWeight the previous weight
+     * @param gradient the gradient at the previous weight
+     * @param m the first per-attribute state array (velocity or average gradient)
+     * @param v the second per-attribute state array (average squared gradient)
+     * @param t the number of the update, starting at 1
+     * @param alpha the learning rate
+     */
+    public abstract void update(double[] weight, double[] oldWeight, double[] gradient, double[] m, double[] v, int t, double alpha);
+
+    /**
+     * Converts a string to its optimizer.
+     * @param name the name of the optimizer
+     * @return the optimizer, or plain gradient descent if the name is not recognized
+     */
+    public static Optimizer getOptimizer(String name) {
+        switch (name.toLowerCase()) {
+            case "momentum":
+                return MOMENTUM;
+
+            case "nesterov":
+                return NESTEROV;
+
+            case "rmsprop":
+                return RMSPROP;
+
+            case "adam":
+                return ADAM;
+
+            default:
+                return GD;
+        }
+    }
+}
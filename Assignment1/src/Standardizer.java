@@ -0,0 +1,85 @@
+/**
+ * Tanner Turba
+ * CS 557 - Machine Learning
+ * Rescales each augmented attribute of a design matrix to zero mean and unit standard
+ * deviation. The statistics come from the training rows only, and weights learned on the
+ * rescaled attributes can be mapped back to weights for the original attributes, so the
+ * returned model works on unscaled data and no information leaks from other folds.
+ */
+public class Standardizer {
+    private double[] means;
+    private double[] stds;
+
+    /**
+     * Computes the mean and standard deviation of every attribute except the bias.
+     * @param training the training rows.
+     */
+    public Standardizer(DesignMatrix training) {
+        int rows = training.getRows();
+        int cols = training.getCols();
+        double[] x = training.getX();
+        means = new double[cols];
+        stds = new double[cols];
+
+        // The bias column is left alone
+        means[0] = 0.0;
+        stds[0] = 1.0;
+        for (int j = 1; j < cols; j++) {
+            double sum = 0.0;
+            for (int r = 0; r < rows; r++) {
+                sum += x[r * cols + j];
+            }
+            double mean = sum / rows;
+
+            double squares = 0.0;
+            for (int r = 0; r < rows; r++) {
+                double diff = x[r * cols + j] - mean;
+                squares += diff * diff;
+            }
+            double std = Math.sqrt(squares / rows);
+
+            // A constant attribute only needs to be centered
+            means[j] = mean;
+            stds[j] = std > 0.0 ? std : 1.0;
+        }
+    }
+
+    /**
+     * Creates a rescaled copy of a design matrix.
+     * @param data the matrix to rescale, which is not modified.
+     * @return the rescaled copy.
+     */
+    public DesignMatrix apply(DesignMatrix data) {
+        int rows = data.getRows();
+        int cols = data.getCols();
+        int[] indices = new int[rows];
+        for (int r = 0; r < rows; r++) {
+            indices[r] = r;
+        }
+
+        DesignMatrix result = data.subset(indices);
+        double[] x = result.getX();
+        for (int r = 0; r < rows; r++) {
+            int offset = r * cols;
+            for (int j = 1; j < cols; j++) {
+                x[offset + j] = (x[offset + j] - means[j]) / stds[j];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Maps weights learned on rescaled attributes back to the original attributes.
+     * @param weights the weights for the rescaled attributes.
+     * @return the equivalent weights for the original attributes.
+     */
+    public double[] unscale(double[] weights) {
+        double[] result = new double[weights.length];
+        result[0] = weights[0];
+        for (int j = 1; j < weights.length; j++) {
+            result[j] = weights[j] / stds[j];
+            result[0] -= result[j] * means[j];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,188 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Tanner Turba
+ * October 30, 2024
+ * CS 557 - Machine Learning
+ *
+ * Runs the cases of the decision tree benchmarks. This class is in the
+ * default package so it can reach the program's classes, and the
+ * benchmarks reach it through benchmarks.DecisionTree.
+ */
+public class DecisionTreeCases implements benchmarks.DecisionTree {
+    private String fileName;
+    private Driver driver;
+    private Dataset data;
+    private Dataset orderedData;
+    private int[] rows;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private Node root;
+    private CompiledTree tree;
+    private Booster booster;
+    private File modelFile;
+
+    @Override
+    public void open(String fileName) throws IOException {
+        this.fileName = fileName;
+        driver = new Driver(new String[] { "-f", fileName });
+        data = driver.getData();
+        rows = new int[data.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+
+        // A separate copy with every attribute split at a threshold instead of on each value
+        orderedData = DataReader.read(fileName, null, null);
+        for (Attribute attribute : orderedData.getAttributes()) {
+            attribute.setOrdered(true);
+        }
+
+        root = new Node(data, rows, 0, 0);
+        root.learn(-1, -1, null);
+        tree = new CompiledTree(root);
+        booster = new Booster(data, rows, 50, 0.1, 3);
+
+        modelFile = File.createTempFile("benchmark", ".model");
+        Forest forest = new Forest(data, rows, 25, 5, -1, 557, pool);
+        new Model(data.getAttributes(), data.getOutputClasses(), forest.getTrees()).write(modelFile.getPath());
+    }
+
+    @Override
+    public void close() {
+        if (modelFile != null) {
+            modelFile.delete();
+        }
+    }
+
+    /**
+     * Loads the file the way Driver did before DataReader, with a Scanner over
+     * the file and another for every attribute line, as a baseline
+     */
+    @Override
+    public Dataset scannerLoad() throws IOException {
+        Dataset data = null;
+        int[] codes = null;
+        try (Scanner scanner = new Scanner(new File(fileName))) {
+            Attribute[] attributes = null;
+            Attribute outputClasses = null;
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine().trim();
+                if (!line.equals("") && line.charAt(0) != '#') {
+                    if (attributes == null && Character.isDigit(line.charAt(0))) {
+                        attributes = new Attribute[Integer.parseInt(line)];
+                        for (int i = 0; i < attributes.length; i++) {
+                            attributes[i] = new Attribute(scanner.nextLine());
+                        }
+                    }
+                    else if (line.charAt(0) == ':') {
+                        outputClasses = new Attribute("output classes " + line);
+                    }
+                    else {
+                        if (data == null) {
+                            if (outputClasses == null) {
+                                outputClasses = new Attribute("output classes :");
+                            }
+                            data = new Dataset(attributes, outputClasses);
+                            codes = new int[attributes.length];
+                        }
+                        addLine(data, line, codes);
+                    }
+                }
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Codes the values of a line from the file and adds them as a row. Only the
+     * first character of each value is used, as in the original Driver.
+     * @param data the dataset
+     * @param line the line
+     * @param codes the array to code the attribute values in
+     */
+    private static void addLine(Dataset data, String line, int[] codes) {
+        Attribute[] attributes = data.getAttributes();
+        int index = 0;
+        int label = 0;
+        for (int i = 0; i <= attributes.length; i++) {
+            // Skip to the start of the next value
+            while (Character.isWhitespace(line.charAt(index))) {
+                index++;
+            }
+            char value = line.charAt(index);
+            while (index < line.length() && !Character.isWhitespace(line.charAt(index))) {
+                index++;
+            }
+
+            if (i < attributes.length) {
+                codes[i] = attributes[i].encode(value);
+            }
+            else {
+                label = data.getOutputClasses().encode(value);
+            }
+        }
+        data.add(codes, label);
+    }
+
+    @Override
+    public Dataset dataReaderLoad() throws IOException {
+        return DataReader.read(fileName, null, null);
+    }
+
+    @Override
+    public int importance() {
+        return new Node(data, rows, 0, 0).importance(null);
+    }
+
+    @Override
+    public String learn() {
+        return new Node(data, rows, 0, 0).learn(-1, -1, null);
+    }
+
+    @Override
+    public String learnForkJoin() {
+        return new Node(data, rows, 0, 0).learn(-1, -1, null, pool, 256);
+    }
+
+    @Override
+    public String learnSplitLimit() {
+        return new Node(data, rows, 0, 0).learn(-1, 10, new Frontier());
+    }
+
+    @Override
+    public String learnOrdered() {
+        return new Node(orderedData, rows, 0, 0).learn(-1, -1, null);
+    }
+
+    @Override
+    public Forest forest() {
+        return new Forest(data, rows, 25, 5, -1, 557, pool);
+    }
+
+    @Override
+    public Booster booster() {
+        return new Booster(data, rows, 50, 0.1, 3);
+    }
+
+    @Override
+    public double guess() {
+        return driver.guess(root, rows);
+    }
+
+    @Override
+    public int compiledTreeCountCorrect() {
+        return tree.countCorrect(data, rows);
+    }
+
+    @Override
+    public int boosterCountCorrect() {
+        return booster.countCorrect(rows);
+    }
+
+    @Override
+    public Model modelLoad() throws IOException {
+        return Model.load(modelFile.getPath());
+    }
+}
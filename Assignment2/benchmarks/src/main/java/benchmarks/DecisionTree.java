@@ -0,0 +1,118 @@
+package benchmarks;
+
+import java.io.IOException;
+
+/**
+ * Tanner Turba
+ * October 30, 2024
+ * CS 557 - Machine Learning
+ *
+ * The hot paths of the decision tree program, as the benchmarks see them.
+ * The program's classes are in the default package, which JMH does not
+ * allow benchmarks in and which cannot be imported, so the benchmarks call
+ * them through this interface. DecisionTreeCases, in the default package,
+ * implements it.
+ */
+public interface DecisionTree {
+    /**
+     * Creates the cases, which are found by name since their class cannot be imported
+     * @return the cases
+     * @throws ReflectiveOperationException if DecisionTreeCases is missing
+     */
+    static DecisionTree create() throws ReflectiveOperationException {
+        return (DecisionTree)Class.forName("DecisionTreeCases").getDeclaredConstructor().newInstance();
+    }
+
+    /**
+     * Loads a data file and builds the trees, forest and model the cases score with
+     * @param fileName the name of the file
+     * @throws IOException if the file cannot be read or the model cannot be saved
+     */
+    void open(String fileName) throws IOException;
+
+    /**
+     * Removes the saved model
+     */
+    void close();
+
+    /**
+     * Loads the file with a Scanner for every line, as a baseline
+     * @return the dataset
+     * @throws IOException
+     */
+    Object scannerLoad() throws IOException;
+
+    /**
+     * Loads the file with DataReader
+     * @return the dataset
+     * @throws IOException
+     */
+    Object dataReaderLoad() throws IOException;
+
+    /**
+     * Scores every attribute at the root
+     * @return the index of the best attribute
+     */
+    int importance();
+
+    /**
+     * Learns a full tree depth first
+     * @return the log of the tree
+     */
+    Object learn();
+
+    /**
+     * Learns a full tree depth first, with subtrees split on the common pool
+     * @return the log of the tree
+     */
+    Object learnForkJoin();
+
+    /**
+     * Learns a tree best first with a limit of 10 splits
+     * @return the log of the tree
+     */
+    Object learnSplitLimit();
+
+    /**
+     * Learns a full tree with every attribute split at a threshold
+     * @return the log of the tree
+     */
+    Object learnOrdered();
+
+    /**
+     * Learns a forest of 25 trees on the common pool
+     * @return the forest
+     */
+    Object forest();
+
+    /**
+     * Learns 50 rounds of depth 3 gradient-boosted trees
+     * @return the ensemble
+     */
+    Object booster();
+
+    /**
+     * Scores every row with the learned tree through Driver.guess
+     * @return the accuracy
+     */
+    double guess();
+
+    /**
+     * Scores every row with the compiled tree
+     * @return the number of rows predicted correctly
+     */
+    int compiledTreeCountCorrect();
+
+    /**
+     * Scores every row with the boosted ensemble
+     * @return the number of rows predicted correctly
+     */
+    int boosterCountCorrect();
+
+    /**
+     * Loads the saved forest, which is what a scoring run starts with
+     * @return the model
+     * @throws IOException
+     */
+    Object modelLoad() throws IOException;
+}
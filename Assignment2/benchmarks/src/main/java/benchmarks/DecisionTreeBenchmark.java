@@ -0,0 +1,101 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Tanner Turba
+ * October 30, 2024
+ * CS 557 - Machine Learning
+ *
+ * Times loading, learning and scoring on the bundled data files. Run from
+ * the Assignment2 folder, and use "-p fileName=..." to time another file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecisionTreeBenchmark {
+    @Param({ "a02-data/mushroom_data.txt", "a02-data/mushroom_data_small.txt", "a02-data/titanic-data.txt" })
+    private String fileName;
+
+    private DecisionTree cases;
+
+    @Setup
+    public void setUp() throws Exception {
+        cases = DecisionTree.create();
+        cases.open(fileName);
+    }
+
+    @TearDown
+    public void tearDown() {
+        cases.close();
+    }
+
+    @Benchmark
+    public Object scannerLoad() throws Exception {
+        return cases.scannerLoad();
+    }
+
+    @Benchmark
+    public Object dataReaderLoad() throws Exception {
+        return cases.dataReaderLoad();
+    }
+
+    @Benchmark
+    public int importance() {
+        return cases.importance();
+    }
+
+    @Benchmark
+    public Object learn() {
+        return cases.learn();
+    }
+
+    @Benchmark
+    public Object learnForkJoin() {
+        return cases.learnForkJoin();
+    }
+
+    @Benchmark
+    public Object learnSplitLimit() {
+        return cases.learnSplitLimit();
+    }
+
+    @Benchmark
+    public Object learnOrdered() {
+        return cases.learnOrdered();
+    }
+
+    @Benchmark
+    public Object forest() {
+        return cases.forest();
+    }
+
+    @Benchmark
+    public Object booster() {
+        return cases.booster();
+    }
+
+    @Benchmark
+    public double guess() {
+        return cases.guess();
+    }
+
+    @Benchmark
+    public int compiledTreeCountCorrect() {
+        return cases.compiledTreeCountCorrect();
+    }
+
+    @Benchmark
+    public int boosterCountCorrect() {
+        return cases.boosterCountCorrect();
+    }
+
+    @Benchmark
+    public Object modelLoad() throws Exception {
+        return cases.modelLoad();
+    }
+}
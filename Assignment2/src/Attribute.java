@@ -1,3 +1,6 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.charset.*;
 import java.util.*;
 
 /**
@@ -6,17 +9,25 @@ import java.util.*;
  * CS 557 - Machine Learning
  * 
  * This class represents an Attribute that is included in the input data
- * from the file. 
+ * from the file. Each value of the attribute is given a dense code, in the
+ * order the values are declared, so data can be stored as small integers.
  */
 public class Attribute {
+    private static final int MAX_VALUES = 256;
+
     private String name = null;
-    private Map<Character, String> valMap = new HashMap<>();
+    private Map<Character, String> valMap = new LinkedHashMap<>();
+    private char[] values = new char[8];
+    private int[] codes = new int[128];
+    private int numOfValues = 0;
+    private boolean isOrdered = false;
     
     /**
      * Creates an attribute from a line in the input file.
      * @param line the file line
      */
     public Attribute(String line) {
+        Arrays.fill(codes, -1);
         Scanner scanner = new Scanner(line);
 
         // Read the name
@@ -39,6 +50,202 @@ public class Attribute {
             }
         }
         scanner.close();
+
+        // Code the declared values
+        for (char value : valMap.keySet()) {
+            encode(value);
+        }
+    }
+
+    /**
+     * Creates an attribute whose declared values have already been read
+     * @param name the name
+     * @param declared the full name of each declared value, or null if it was not given one, in declaration order
+     */
+    public Attribute(String name, Map<Character, String> declared) {
+        Arrays.fill(codes, -1);
+        this.name = name;
+        valMap.putAll(declared);
+        for (char value : valMap.keySet()) {
+            encode(value);
+        }
+    }
+
+    /**
+     * Writes the name and every coded value, in code order. Each value is
+     * written with whether it was declared and its full name, if it has one.
+     * @param out the stream to write to
+     * @throws IOException
+     */
+    public void write(DataOutputStream out) throws IOException {
+        writeString(out, name);
+        out.writeBoolean(isOrdered);
+        out.writeInt(numOfValues);
+        for (int code = 0; code < numOfValues; code++) {
+            out.writeChar(values[code]);
+            out.writeBoolean(valMap.containsKey(values[code]));
+            writeString(out, getValueName(code));
+        }
+    }
+
+    /**
+     * Reads an attribute written by write. The values get the same codes they had.
+     * @param buffer the buffer, positioned at the start of the attribute
+     * @param version the version of the model file, since the first did not record if attributes are ordered
+     * @return the attribute
+     */
+    public static Attribute read(ByteBuffer buffer, int version) {
+        // An attribute with no declared values, which are added below
+        Attribute attribute = new Attribute(readString(buffer), new LinkedHashMap<>());
+        if (version >= 2) {
+            attribute.isOrdered = buffer.get() != 0;
+        }
+        int numOfValues = buffer.getInt();
+        for (int code = 0; code < numOfValues; code++) {
+            char value = buffer.getChar();
+            boolean isDeclared = buffer.get() != 0;
+            String valueName = readString(buffer);
+            if (isDeclared) {
+                attribute.valMap.put(value, valueName);
+            }
+            attribute.encode(value);
+        }
+        return attribute;
+    }
+
+    /**
+     * Writes a string as its length in UTF-8 bytes and then the bytes
+     * @param out the stream to write to
+     * @param string the string, which may be null
+     * @throws IOException
+     */
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        if (string == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by writeString
+     * @param buffer the buffer
+     * @return the string, or null
+     */
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the code of a value, giving it the next code if it has not been seen before.
+     * An ordered attribute only takes its declared values, since an undeclared one
+     * would have no place in the order.
+     * @param value the value
+     * @return the code
+     */
+    public int encode(char value) {
+        int code = getCode(value);
+        if (code >= 0) {
+            return code;
+        }
+        if (isOrdered && !valMap.containsKey(value)) {
+            throw new IllegalArgumentException(String.format("Value %c is not declared for ordered attribute [%s]", value, name));
+        }
+        if (numOfValues == MAX_VALUES) {
+            throw new IllegalArgumentException(String.format("Attribute [%s] has more than %d values", name, MAX_VALUES));
+        }
+
+        // Grow the tables if needed
+        if (value >= codes.length) {
+            int oldLength = codes.length;
+            codes = Arrays.copyOf(codes, Math.max(value + 1, oldLength * 2));
+            Arrays.fill(codes, oldLength, codes.length, -1);
+        }
+        if (numOfValues == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+
+        codes[value] = numOfValues;
+        values[numOfValues] = value;
+        return numOfValues++;
+    }
+
+    /**
+     * Gets the code of a value
+     * @param value the value
+     * @return the code, or -1 if the value has not been seen
+     */
+    public int getCode(char value) {
+        return value < codes.length ? codes[value] : -1;
+    }
+
+    /**
+     * Gets the value with a code
+     * @param code the code
+     * @return
+     */
+    public char getValue(int code) {
+        return values[code];
+    }
+
+    /**
+     * Gets the full name of the value with a code
+     * @param code the code
+     * @return the name, or null if the value was not given one
+     */
+    public String getValueName(int code) {
+        return valMap.get(values[code]);
+    }
+
+    /**
+     * Gets the full name of the value with a code, or the value itself if it was not given one
+     * @param code the code
+     * @return
+     */
+    public String getLabel(int code) {
+        String valueName = getValueName(code);
+        return valueName != null ? valueName : String.valueOf(values[code]);
+    }
+
+    /**
+     * Determines if the values are in order, so the attribute is split at a
+     * threshold instead of giving each value its own branch
+     * @return
+     */
+    public boolean isOrdered() {
+        return isOrdered;
+    }
+
+    /**
+     * Sets if the values are in order. The order is the order the values were declared in,
+     * so an attribute that has coded any undeclared values cannot be ordered.
+     * @param isOrdered true to split the attribute at a threshold
+     */
+    public void setOrdered(boolean isOrdered) {
+        if (isOrdered) {
+            for (int code = 0; code < numOfValues; code++) {
+                if (!valMap.containsKey(values[code])) {
+                    throw new IllegalArgumentException(String.format("Attribute [%s] has undeclared value %c, so it cannot be ordered", name, values[code]));
+                }
+            }
+        }
+        this.isOrdered = isOrdered;
+    }
+
+    /**
+     * Gets the number of coded values
+     * @return
+     */
+    public int getNumOfValues() {
+        return numOfValues;
     }
 
     /**
@@ -0,0 +1,396 @@
+import java.util.*;
+
+/**
+ * Tanner Turba
+ * October 30, 2024
+ * CS 557 - Machine Learning
+ *
+ * This class is an ensemble of gradient-boosted regression trees. Every
+ * output class has a score, and the scores are turned into probabilities
+ * with a softmax. Each round fits one shallow tree per output class to the
+ * gradient and hessian of the log loss, and adds a fraction of each leaf's
+ * Newton step to the scores of the rows in the leaf.
+ *
+ * Splits are found from histograms of the gradient and hessian over the
+ * value codes of each attribute, filled in one pass over the attribute's
+ * column. An ordered attribute is split at a threshold in code order, and
+ * any other attribute is split by sorting its values by their mean step,
+ * which finds the best way to send its values to two sides. Trees share
+ * one set of scratch arrays and are stored in flat arrays, so prediction
+ * can run tree by tree over a whole batch of rows.
+ */
+public class Booster {
+    private static final double LAMBDA = 5.0;
+    private static final double MIN_HESSIAN = 1e-6;
+    private static final int MIN_LEAF_SIZE = 5;
+    private static final int BATCH_SIZE = 256;
+
+    private Dataset data;
+    private int numOfClasses;
+    private int maxDepth;
+    private double learningRate;
+    private double[] baseScores;
+
+    // The trees, with the nodes of every tree in the same arrays
+    private int[] roots;
+    private int numOfNodes = 0;
+    private int[] attrs = new int[256];
+    private int[] lefts = new int[256];
+    private int[] rights = new int[256];
+    private double[] values = new double[256];
+    private long[] masks = new long[256 * 4];
+
+    // Scratch arrays shared by every tree
+    private int[] sample;
+    private int[] order;
+    private double[] gradients;
+    private double[] hessians;
+    private double[] scores;
+    private double[] gradHist;
+    private double[] hessHist;
+    private int[] countHist;
+    private int[] codes;
+    private double[] keys;
+    private int[] bestCodes;
+    private int numOfBestCodes;
+    private int bestAttr;
+    private int currentClass;
+
+    /**
+     * Learns an ensemble
+     * @param data the dataset
+     * @param rows the training rows
+     * @param numOfRounds the number of rounds, each of which adds a tree for every output class
+     * @param learningRate the fraction of each tree's steps that is added to the scores
+     * @param maxDepth the depth limit of each tree
+     */
+    public Booster(Dataset data, int[] rows, int numOfRounds, double learningRate, int maxDepth) {
+        this.data = data;
+        this.numOfClasses = data.getOutputClasses().getNumOfValues();
+        this.learningRate = learningRate;
+        this.maxDepth = maxDepth;
+        int n = rows.length;
+
+        int maxValues = 0;
+        for (Attribute attribute : data.getAttributes()) {
+            maxValues = Math.max(maxValues, attribute.getNumOfValues());
+        }
+        sample = rows.clone();
+        order = new int[n];
+        gradients = new double[n];
+        hessians = new double[n];
+        scores = new double[n * numOfClasses];
+        gradHist = new double[maxValues];
+        hessHist = new double[maxValues];
+        countHist = new int[maxValues];
+        codes = new int[maxValues];
+        keys = new double[maxValues];
+        bestCodes = new int[maxValues];
+
+        // Start every row at the log of the smoothed frequency of each output class
+        int[] classCounts = new int[numOfClasses];
+        for (int row : sample) {
+            classCounts[data.getLabel(row)]++;
+        }
+        baseScores = new double[numOfClasses];
+        for (int k = 0; k < numOfClasses; k++) {
+            baseScores[k] = Math.log((classCounts[k] + 1.0) / (n + numOfClasses));
+        }
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(baseScores, 0, scores, i * numOfClasses, numOfClasses);
+        }
+
+        roots = new int[numOfRounds * numOfClasses];
+        double[] probabilities = new double[n * numOfClasses];
+        for (int round = 0; round < numOfRounds; round++) {
+            // The probabilities are fixed for the round, so each class's tree sees the same scores
+            for (int i = 0; i < n; i++) {
+                softmax(scores, i * numOfClasses, probabilities);
+            }
+
+            for (int k = 0; k < numOfClasses; k++) {
+                for (int i = 0; i < n; i++) {
+                    double p = probabilities[i * numOfClasses + k];
+                    gradients[i] = p - (data.getLabel(sample[i]) == k ? 1.0 : 0.0);
+                    hessians[i] = Math.max(p * (1.0 - p), MIN_HESSIAN);
+                    order[i] = i;
+                }
+                currentClass = k;
+                roots[round * numOfClasses + k] = grow(0, n, 0);
+            }
+        }
+    }
+
+    /**
+     * Writes the probabilities of the output classes for one row's scores
+     * @param scores the scores
+     * @param offset the index of the row's first score
+     * @param probabilities the array to write to, at the same offset
+     */
+    private void softmax(double[] scores, int offset, double[] probabilities) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int k = 0; k < numOfClasses; k++) {
+            max = Math.max(max, scores[offset + k]);
+        }
+        double sum = 0.0;
+        for (int k = 0; k < numOfClasses; k++) {
+            probabilities[offset + k] = Math.exp(scores[offset + k] - max);
+            sum += probabilities[offset + k];
+        }
+        for (int k = 0; k < numOfClasses; k++) {
+            probabilities[offset + k] /= sum;
+        }
+    }
+
+    /**
+     * Grows a tree below a node, whose rows are a range of the order
+     * @param from the index of the node's first row
+     * @param to the index after the node's last row
+     * @param depth the depth of the node
+     * @return the index of the node
+     */
+    private int grow(int from, int to, int depth) {
+        int node = newNode();
+        double gradSum = 0.0;
+        double hessSum = 0.0;
+        for (int r = from; r < to; r++) {
+            gradSum += gradients[order[r]];
+            hessSum += hessians[order[r]];
+        }
+
+        if (depth < maxDepth && to - from >= 2 * MIN_LEAF_SIZE && findSplit(from, to, gradSum, hessSum)) {
+            // Keep the values that go left, since the scratch is reused below
+            attrs[node] = bestAttr;
+            for (int c = 0; c < numOfBestCodes; c++) {
+                masks[node * 4 + (bestCodes[c] >> 6)] |= 1L << (bestCodes[c] & 63);
+            }
+
+            // Move the rows that go left to the front of the range
+            byte[] column = data.getColumn(bestAttr);
+            int mid = from;
+            for (int r = from; r < to; r++) {
+                if (goesLeft(node, column[sample[order[r]]] & 0xFF)) {
+                    int temp = order[mid];
+                    order[mid++] = order[r];
+                    order[r] = temp;
+                }
+            }
+
+            // The arrays may grow while the children are made
+            int left = grow(from, mid, depth + 1);
+            int right = grow(mid, to, depth + 1);
+            lefts[node] = left;
+            rights[node] = right;
+        }
+        else {
+            // A leaf takes a Newton step, which is added to the scores of its rows
+            attrs[node] = -1;
+            values[node] = -learningRate * gradSum / (hessSum + LAMBDA);
+            for (int r = from; r < to; r++) {
+                scores[order[r] * numOfClasses + currentClass] += values[node];
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Finds the split of a node's rows that reduces the loss the most
+     * @param from the index of the node's first row
+     * @param to the index after the node's last row
+     * @param gradSum the sum of the gradients of the node's rows
+     * @param hessSum the sum of the hessians of the node's rows
+     * @return true if a split reduces the loss, which is then in bestAttr and bestCodes
+     */
+    private boolean findSplit(int from, int to, double gradSum, double hessSum) {
+        Attribute[] attributes = data.getAttributes();
+        double parentScore = gradSum * gradSum / (hessSum + LAMBDA);
+        double bestGain = 1e-9;
+        boolean isFound = false;
+
+        for (int a = 0; a < attributes.length; a++) {
+            // Fill the histograms of the attribute's values
+            byte[] column = data.getColumn(a);
+            int numOfValues = attributes[a].getNumOfValues();
+            Arrays.fill(gradHist, 0, numOfValues, 0.0);
+            Arrays.fill(hessHist, 0, numOfValues, 0.0);
+            Arrays.fill(countHist, 0, numOfValues, 0);
+            for (int r = from; r < to; r++) {
+                int i = order[r];
+                int v = column[sample[i]] & 0xFF;
+                gradHist[v] += gradients[i];
+                hessHist[v] += hessians[i];
+                countHist[v]++;
+            }
+
+            // List the values the rows have, in code order or by mean step
+            int numOfCodes = 0;
+            for (int v = 0; v < numOfValues; v++) {
+                if (countHist[v] > 0) {
+                    codes[numOfCodes] = v;
+                    keys[numOfCodes] = attributes[a].isOrdered() ? v : gradHist[v] / (hessHist[v] + LAMBDA);
+                    numOfCodes++;
+                }
+            }
+            if (numOfCodes < 2) {
+                continue;
+            }
+            sortCodes(numOfCodes);
+
+            // Sweep the cuts, moving one value at a time to the left side
+            double leftGrad = 0.0;
+            double leftHess = 0.0;
+            int leftSize = 0;
+            for (int c = 0; c < numOfCodes - 1; c++) {
+                int v = codes[c];
+                leftGrad += gradHist[v];
+                leftHess += hessHist[v];
+                leftSize += countHist[v];
+                if (leftSize < MIN_LEAF_SIZE) {
+                    continue;
+                }
+                if ((to - from) - leftSize < MIN_LEAF_SIZE) {
+                    break;
+                }
+
+                double rightGrad = gradSum - leftGrad;
+                double rightHess = hessSum - leftHess;
+                double gain = leftGrad * leftGrad / (leftHess + LAMBDA) + rightGrad * rightGrad / (rightHess + LAMBDA) - parentScore;
+                if (gain > bestGain) {
+                    bestGain = gain;
+                    bestAttr = a;
+                    numOfBestCodes = c + 1;
+                    System.arraycopy(codes, 0, bestCodes, 0, numOfBestCodes);
+                    isFound = true;
+                }
+            }
+        }
+        return isFound;
+    }
+
+    /**
+     * Sorts the listed values by their keys, which are few enough for an insertion sort
+     * @param numOfCodes the number of listed values
+     */
+    private void sortCodes(int numOfCodes) {
+        for (int i = 1; i < numOfCodes; i++) {
+            int code = codes[i];
+            double key = keys[i];
+            int j = i - 1;
+            while (j >= 0 && keys[j] > key) {
+                codes[j + 1] = codes[j];
+                keys[j + 1] = keys[j];
+                j--;
+            }
+            codes[j + 1] = code;
+            keys[j + 1] = key;
+        }
+    }
+
+    /**
+     * Adds a node, growing the arrays if needed
+     * @return the index of the node
+     */
+    private int newNode() {
+        if (numOfNodes == attrs.length) {
+            int length = attrs.length * 2;
+            attrs = Arrays.copyOf(attrs, length);
+            lefts = Arrays.copyOf(lefts, length);
+            rights = Arrays.copyOf(rights, length);
+            values = Arrays.copyOf(values, length);
+            masks = Arrays.copyOf(masks, length * 4);
+        }
+        return numOfNodes++;
+    }
+
+    /**
+     * Determines if a value goes to the left child of a node
+     * @param node the node
+     * @param code the code of the value
+     * @return
+     */
+    private boolean goesLeft(int node, int code) {
+        return ((masks[node * 4 + (code >> 6)] >>> (code & 63)) & 1L) != 0;
+    }
+
+    /**
+     * Finds the scores of a batch of rows. Each tree is run over the whole
+     * batch before the next, so a tree's nodes stay in cache.
+     * @param rows the rows
+     * @param from the index of the first row of the batch
+     * @param to the index after the last row of the batch
+     * @param batchScores the array to write the scores of each row to, one per output class
+     */
+    public void predict(int[] rows, int from, int to, double[] batchScores) {
+        for (int i = from; i < to; i++) {
+            System.arraycopy(baseScores, 0, batchScores, (i - from) * numOfClasses, numOfClasses);
+        }
+        for (int t = 0; t < roots.length; t++) {
+            int k = t % numOfClasses;
+            int root = roots[t];
+            for (int i = from; i < to; i++) {
+                int node = root;
+                while (attrs[node] >= 0) {
+                    int code = data.getValue(attrs[node], rows[i]);
+                    node = goesLeft(node, code) ? lefts[node] : rights[node];
+                }
+                batchScores[(i - from) * numOfClasses + k] += values[node];
+            }
+        }
+    }
+
+    /**
+     * Predicts the output class of many rows, which is the class with the highest score
+     * @param rows the rows
+     * @param predictions the array the code of each row's predicted output class is written to
+     */
+    public void predict(int[] rows, int[] predictions) {
+        double[] batchScores = new double[BATCH_SIZE * numOfClasses];
+        for (int from = 0; from < rows.length; from += BATCH_SIZE) {
+            int to = Math.min(rows.length, from + BATCH_SIZE);
+            predict(rows, from, to, batchScores);
+            for (int i = from; i < to; i++) {
+                int offset = (i - from) * numOfClasses;
+                int result = 0;
+                for (int k = 1; k < numOfClasses; k++) {
+                    if (batchScores[offset + k] > batchScores[offset + result]) {
+                        result = k;
+                    }
+                }
+                predictions[i] = result;
+            }
+        }
+    }
+
+    /**
+     * Counts the rows whose output class is predicted correctly
+     * @param rows the rows
+     * @return the number of correct predictions
+     */
+    public int countCorrect(int[] rows) {
+        int[] predictions = new int[rows.length];
+        predict(rows, predictions);
+        int correctCount = 0;
+        for (int i = 0; i < rows.length; i++) {
+            if (predictions[i] == data.getLabel(rows[i])) {
+                correctCount++;
+            }
+        }
+        return correctCount;
+    }
+
+    /**
+     * Gets the total number of nodes in the trees
+     * @return
+     */
+    public int getNodeCount() {
+        return numOfNodes;
+    }
+
+    /**
+     * Gets the number of trees
+     * @return
+     */
+    public int size() {
+        return roots.length;
+    }
+}
@@ -0,0 +1,189 @@
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+
+/**
+ * Tanner Turba
+ * October 30, 2024
+ * CS 557 - Machine Learning
+ * 
+ * This class is a learned decision tree flattened into arrays, which is
+ * used for prediction. Nodes are numbered breadth first. Each node has
+ * the attribute it splits on (or -1 for a leaf), the output class it
+ * predicts, and a range of a shared table that holds the number of its
+ * child for each value code (or -1 where there is no branch). A split at
+ * a threshold is stored the same way, so prediction does not change.
+ */
+public class CompiledTree {
+    private int[] attrIndices;
+    private int[] outputs;
+    private int[] childStarts;
+    private int[] childTable;
+
+    /**
+     * Flattens a learned tree
+     * @param root the root node of the tree
+     */
+    public CompiledTree(Node root) {
+        // Number the nodes breadth first
+        ArrayList<Node> nodes = new ArrayList<>();
+        nodes.add(root);
+        int tableSize = 0;
+        for (int n = 0; n < nodes.size(); n++) {
+            Node node = nodes.get(n);
+            if (!node.isLeaf()) {
+                Node[] children = node.getChildren();
+                tableSize += node.getNumOfCodes();
+                for (Node child : children) {
+                    if (child != null) {
+                        nodes.add(child);
+                    }
+                }
+            }
+        }
+
+        attrIndices = new int[nodes.size()];
+        outputs = new int[nodes.size()];
+        childStarts = new int[nodes.size() + 1];
+        childTable = new int[tableSize];
+
+        // Children were numbered in the same order they are visited here
+        int nextChild = 1;
+        int start = 0;
+        for (int n = 0; n < nodes.size(); n++) {
+            Node node = nodes.get(n);
+            outputs[n] = node.getOutput();
+            childStarts[n] = start;
+            if (node.isLeaf()) {
+                attrIndices[n] = -1;
+            }
+            else {
+                attrIndices[n] = node.getAttrIndex();
+                Node[] children = node.getChildren();
+                int[] numbers = new int[children.length];
+                for (int c = 0; c < children.length; c++) {
+                    numbers[c] = children[c] != null ? nextChild++ : -1;
+                }
+
+                // A threshold split gives the same child to every value on the same side
+                for (int code = 0; code < node.getNumOfCodes(); code++) {
+                    childTable[start++] = numbers[node.getBranch(code)];
+                }
+            }
+        }
+        childStarts[nodes.size()] = start;
+    }
+
+    /**
+     * Creates a tree from arrays that were already flattened
+     * @param attrIndices the attribute each node splits on, or -1 for a leaf
+     * @param outputs the output class each node predicts
+     * @param childStarts the start of each node's range of the child table, followed by the table size
+     * @param childTable the number of the child for each value code, or -1 where there is no branch
+     */
+    CompiledTree(int[] attrIndices, int[] outputs, int[] childStarts, int[] childTable) {
+        this.attrIndices = attrIndices;
+        this.outputs = outputs;
+        this.childStarts = childStarts;
+        this.childTable = childTable;
+    }
+
+    /**
+     * Writes the arrays of the tree, each preceded by its length
+     * @param out the stream to write to
+     * @throws IOException
+     */
+    public void write(DataOutputStream out) throws IOException {
+        for (int[] array : new int[][] { attrIndices, outputs, childStarts, childTable }) {
+            out.writeInt(array.length);
+            for (int value : array) {
+                out.writeInt(value);
+            }
+        }
+    }
+
+    /**
+     * Reads a tree written by write. Each array is copied out of the buffer in bulk.
+     * @param buffer the buffer, positioned at the start of the tree
+     * @return the tree
+     */
+    public static CompiledTree read(ByteBuffer buffer) {
+        int[] attrIndices = readInts(buffer);
+        int[] outputs = readInts(buffer);
+        int[] childStarts = readInts(buffer);
+        int[] childTable = readInts(buffer);
+        if (outputs.length != attrIndices.length || childStarts.length != attrIndices.length + 1
+                || childStarts[attrIndices.length] != childTable.length) {
+            throw new IllegalArgumentException("Malformed tree in model");
+        }
+        return new CompiledTree(attrIndices, outputs, childStarts, childTable);
+    }
+
+    /**
+     * Reads an array of ints that is preceded by its length
+     * @param buffer the buffer
+     * @return
+     */
+    private static int[] readInts(ByteBuffer buffer) {
+        int[] array = new int[buffer.getInt()];
+        buffer.asIntBuffer().get(array);
+        buffer.position(buffer.position() + array.length * Integer.BYTES);
+        return array;
+    }
+
+    /**
+     * Predicts the output class of a row
+     * @param data the dataset
+     * @param row the row
+     * @return the code of the predicted output class
+     */
+    public int predict(Dataset data, int row) {
+        int n = 0;
+        while (attrIndices[n] >= 0) {
+            // Follow the branch for the row's value, if there is one
+            int code = data.getValue(attrIndices[n], row);
+            int slot = childStarts[n] + code;
+            if (slot >= childStarts[n + 1] || childTable[slot] < 0) {
+                break;
+            }
+            n = childTable[slot];
+        }
+        return outputs[n];
+    }
+
+    /**
+     * Predicts the output class of many rows
+     * @param data the dataset
+     * @param rows the rows
+     * @param predictions the array the code of each row's predicted output class is written to
+     */
+    public void predict(Dataset data, int[] rows, int[] predictions) {
+        for (int i = 0; i < rows.length; i++) {
+            predictions[i] = predict(data, rows[i]);
+        }
+    }
+
+    /**
+     * Counts the rows whose output class is predicted correctly
+     * @param data the dataset
+     * @param rows the rows
+     * @return the number of correct predictions
+     */
+    public int countCorrect(Dataset data, int[] rows) {
+        int correctCount = 0;
+        for (int row : rows) {
+            if (predict(data, row) == data.getLabel(row)) {
+                correctCount++;
+            }
+        }
+        return correctCount;
+    }
+
+    /**
+     * Gets the number of nodes
+     * @return
+     */
+    public int size() {
+        return outputs.length;
+    }
+}
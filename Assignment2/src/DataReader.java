@@ -0,0 +1,301 @@
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Tanner Turba
+ * October 30, 2024
+ * CS 557 - Machine Learning
+ *
+ * This class reads an input data file in a single pass over its bytes.
+ * The file is a count of attributes, a "name: v=label ..." line for each
+ * attribute, an optional ": v=label ..." line for the output classes, and
+ * then one row per line, with blank lines and lines starting with '#'
+ * skipped. Only the first character of each value is used, so every
+ * value is coded as it is found and written straight into the columns
+ * of the dataset, without making a string or a Scanner for any line.
+ */
+public class DataReader {
+    private byte[] bytes;
+    private int position = 0;
+    private int lineNum = 0;
+
+    /**
+     * Creates a reader for the contents of a file
+     * @param bytes the contents of the file
+     */
+    private DataReader(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Reads a data file
+     * @param fileName the name of the file
+     * @param attributes the attributes to code the rows with, or null to use the ones declared in the file
+     * @param outputClasses the output classes to code the rows with, or null to use the ones declared in the file
+     * @return the dataset, or null if the file does not declare its attributes
+     * @throws IOException if the file cannot be read or a line is malformed
+     */
+    public static Dataset read(String fileName, Attribute[] attributes, Attribute outputClasses) throws IOException {
+        return new DataReader(Files.readAllBytes(Paths.get(fileName))).read(attributes, outputClasses);
+    }
+
+    /**
+     * Reads the header and rows
+     * @param attributes the attributes to code the rows with, or null to use the ones declared in the file
+     * @param outputClasses the output classes to code the rows with, or null to use the ones declared in the file
+     * @return the dataset, or null if the file does not declare its attributes
+     * @throws IOException if a line is malformed
+     */
+    private Dataset read(Attribute[] attributes, Attribute outputClasses) throws IOException {
+        Attribute[] declared = null;
+        Attribute declaredClasses = null;
+        Dataset data = null;
+        int[] codes = null;
+
+        while (position < bytes.length) {
+            int start = position;
+            int end = nextLine();
+            int from = skipSpace(start, end);
+            int to = end;
+            while (to > from && (bytes[to - 1] & 0xFF) <= ' ') {
+                to--;
+            }
+
+            // Not a comment
+            if (from == to || bytes[from] == '#') {
+                continue;
+            }
+            if (declared == null && bytes[from] >= '0' && bytes[from] <= '9') {
+                // Read attrs, which immediately follow the count
+                declared = new Attribute[parseCount(from, to)];
+                for (int i = 0; i < declared.length; i++) {
+                    if (position >= bytes.length) {
+                        throw error("Expected %d attributes", declared.length);
+                    }
+                    int lineStart = position;
+                    declared[i] = parseAttribute(lineStart, nextLine());
+                }
+            }
+            else if (bytes[from] == ':') {
+                // Read output classes
+                declaredClasses = parseAttribute("output classes ", from + 1, to);
+            }
+            else {
+                // Read datapoints
+                if (data == null) {
+                    if (declared == null) {
+                        throw error("Data before the attribute count");
+                    }
+                    data = createDataset(declared, declaredClasses, attributes, outputClasses);
+                    codes = new int[data.getAttributes().length];
+                }
+                int label = parseRow(from, to, data.getAttributes(), data.getOutputClasses(), codes);
+                data.add(codes, label);
+            }
+        }
+
+        // A file with a header but no rows is an empty dataset
+        if (data == null && declared != null) {
+            data = createDataset(declared, declaredClasses, attributes, outputClasses);
+        }
+        return data;
+    }
+
+    /**
+     * Creates the dataset once the header has been read. Rows are only coded with
+     * attributes and output classes that were given if the header declares the same ones.
+     * @param declared the attributes declared in the file
+     * @param declaredClasses the output classes declared in the file, or null if there was no line for them
+     * @param attributes the attributes to code the rows with, or null to use the declared ones
+     * @param outputClasses the output classes to code the rows with, or null to use the declared ones
+     * @return
+     * @throws IOException if the header does not match the given attributes or output classes
+     */
+    private static Dataset createDataset(Attribute[] declared, Attribute declaredClasses, Attribute[] attributes, Attribute outputClasses) throws IOException {
+        if (declaredClasses == null) {
+            declaredClasses = new Attribute("output classes ", new LinkedHashMap<>());
+        }
+        if (attributes != null) {
+            if (attributes.length != declared.length) {
+                throw new IOException(String.format("Declares %d attributes, but the model has %d", declared.length, attributes.length));
+            }
+            for (int i = 0; i < declared.length; i++) {
+                checkMatch(declared[i], attributes[i], String.format("Attribute %d", i + 1));
+            }
+        }
+        if (outputClasses != null) {
+            checkMatch(declaredClasses, outputClasses, "Output classes");
+        }
+        return new Dataset(attributes != null ? attributes : declared, outputClasses != null ? outputClasses : declaredClasses);
+    }
+
+    /**
+     * Checks that a declared attribute has the name and the declared values, in order,
+     * of the attribute it will be coded with
+     * @param declared the attribute declared in the file
+     * @param expected the attribute to code with
+     * @param what what the attribute is, for the error
+     * @throws IOException if they differ
+     */
+    private static void checkMatch(Attribute declared, Attribute expected, String what) throws IOException {
+        if (!Objects.equals(declared.getName().trim(), expected.getName() == null ? null : expected.getName().trim())) {
+            throw new IOException(String.format("%s: [%s] is declared, but the model has [%s]", what, declared.getName().trim(), expected.getName()));
+        }
+        List<Character> values = new ArrayList<>(declared.getValMap().keySet());
+        List<Character> expectedValues = new ArrayList<>(expected.getValMap().keySet());
+        if (!values.equals(expectedValues)) {
+            throw new IOException(String.format("%s: values %s are declared, but the model declares %s", what, values, expectedValues));
+        }
+    }
+
+    /**
+     * Moves past the current line
+     * @return the index of the end of the line, before any line break
+     */
+    private int nextLine() {
+        int end = position;
+        while (end < bytes.length && bytes[end] != '\n') {
+            end++;
+        }
+        position = end + 1;
+        lineNum++;
+        if (end > 0 && end <= bytes.length && bytes[end - 1] == '\r') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Skips spaces and other control characters
+     * @param from the index to start at
+     * @param to the end of the line
+     * @return the index of the next visible character, or the end of the line
+     */
+    private int skipSpace(int from, int to) {
+        while (from < to && (bytes[from] & 0xFF) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * Skips the characters of a value
+     * @param from the index to start at
+     * @param to the end of the line
+     * @return the index after the value
+     */
+    private int skipValue(int from, int to) {
+        while (from < to && (bytes[from] & 0xFF) > ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * Parses the number of attributes
+     * @param from the start of the line
+     * @param to the end of the line
+     * @return
+     * @throws IOException
+     */
+    private int parseCount(int from, int to) throws IOException {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (bytes[i] < '0' || bytes[i] > '9' || count > 100000) {
+                throw error("Malformed attribute count");
+            }
+            count = count * 10 + (bytes[i] - '0');
+        }
+        return count;
+    }
+
+    /**
+     * Parses a "name: v=label ..." line
+     * @param from the start of the line
+     * @param to the end of the line
+     * @return the attribute
+     * @throws IOException
+     */
+    private Attribute parseAttribute(int from, int to) throws IOException {
+        int colon = from;
+        while (colon < to && bytes[colon] != ':') {
+            colon++;
+        }
+        if (colon == to) {
+            throw error("Expected an attribute");
+        }
+        return parseAttribute(new String(bytes, from, colon - from, StandardCharsets.UTF_8), colon + 1, to);
+    }
+
+    /**
+     * Parses the "v=label ..." values of an attribute
+     * @param name the name of the attribute
+     * @param from the index after the ':'
+     * @param to the end of the line
+     * @return the attribute
+     */
+    private Attribute parseAttribute(String name, int from, int to) {
+        Map<Character, String> declared = new LinkedHashMap<>();
+        for (int i = skipSpace(from, to); i < to; i = skipSpace(i, to)) {
+            int end = skipValue(i, to);
+
+            // The label runs from the first '=' to the next one
+            int equals = i + 1;
+            while (equals < end && bytes[equals] != '=') {
+                equals++;
+            }
+            int labelEnd = equals + 1;
+            while (labelEnd < end && bytes[labelEnd] != '=') {
+                labelEnd++;
+            }
+            String label = labelEnd > equals + 1 ? new String(bytes, equals + 1, labelEnd - equals - 1, StandardCharsets.UTF_8) : null;
+            declared.put((char)(bytes[i] & 0xFF), label);
+            i = end;
+        }
+        return new Attribute(name, declared);
+    }
+
+    /**
+     * Codes the values of a row
+     * @param from the start of the line
+     * @param to the end of the line
+     * @param attributes the attributes
+     * @param outputClasses the output classes
+     * @param codes the array to write the code of each attribute's value to
+     * @return the code of the output class
+     * @throws IOException if the row is short or has a value that cannot be coded
+     */
+    private int parseRow(int from, int to, Attribute[] attributes, Attribute outputClasses, int[] codes) throws IOException {
+        int i = from;
+        for (int a = 0; a < attributes.length; a++) {
+            i = skipSpace(i, to);
+            if (i == to) {
+                throw error("Expected %d values and an output class", attributes.length);
+            }
+            try {
+                codes[a] = attributes[a].encode((char)(bytes[i] & 0xFF));
+            }
+            catch (IllegalArgumentException e) {
+                throw error("%s", e.getMessage());
+            }
+            i = skipValue(i, to);
+        }
+        i = skipSpace(i, to);
+        if (i == to) {
+            throw error("Expected %d values and an output class", attributes.length);
+        }
+        return outputClasses.encode((char)(bytes[i] & 0xFF));
+    }
+
+    /**
+     * Creates an error for the current line
+     * @param format the message format
+     * @param args the message arguments
+     * @return
+     */
+    private IOException error(String format, Object... args) {
+        return new IOException(String.format("Line %d: %s", lineNum, String.format(format, args)));
+    }
+}
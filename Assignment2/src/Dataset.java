@@ -0,0 +1,126 @@
+import java.util.*;
+
+/**
+ * Tanner Turba
+ * October 30, 2024
+ * CS 557 - Machine Learning
+ *
+ * This class holds the data points from the input data file in columns.
+ * Every attribute has a column of value codes and the output classes
+ * have a column of labels, so a row only takes one byte per attribute
+ * and the tree can be built by indexing arrays with row numbers.
+ */
+public class Dataset {
+    private Attribute[] attributes;
+    private Attribute outputClasses;
+    private byte[][] columns;
+    private byte[] labels;
+    private int rows = 0;
+
+    /**
+     * Creates an empty dataset
+     * @param attributes the attributes of each row
+     * @param outputClasses the output classes
+     */
+    public Dataset(Attribute[] attributes, Attribute outputClasses) {
+        this.attributes = attributes;
+        this.outputClasses = outputClasses;
+        this.columns = new byte[attributes.length][1024];
+        this.labels = new byte[1024];
+    }
+
+    /**
+     * Adds a row whose values have already been coded
+     * @param codes the code of each attribute's value
+     * @param label the code of the output class
+     */
+    public void add(int[] codes, int label) {
+        if (rows == labels.length) {
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = Arrays.copyOf(columns[i], rows * 2);
+            }
+            labels = Arrays.copyOf(labels, rows * 2);
+        }
+        for (int i = 0; i < columns.length; i++) {
+            columns[i][rows] = (byte)codes[i];
+        }
+        labels[rows] = (byte)label;
+        rows++;
+    }
+
+    /**
+     * Gets the code of an attribute's value in a row
+     * @param attr the index of the attribute
+     * @param row the row
+     * @return
+     */
+    public int getValue(int attr, int row) {
+        return columns[attr][row] & 0xFF;
+    }
+
+    /**
+     * Gets the code of the output class of a row
+     * @param row the row
+     * @return
+     */
+    public int getLabel(int row) {
+        return labels[row] & 0xFF;
+    }
+
+    /**
+     * Gets the column of value codes for an attribute. The column may be
+     * longer than the number of rows.
+     * @param attr the index of the attribute
+     * @return
+     */
+    public byte[] getColumn(int attr) {
+        return columns[attr];
+    }
+
+    /**
+     * Gets the column of output class codes. The column may be longer than
+     * the number of rows.
+     * @return
+     */
+    public byte[] getLabels() {
+        return labels;
+    }
+
+    /**
+     * Gets the number of rows
+     * @return
+     */
+    public int size() {
+        return rows;
+    }
+
+    /**
+     * Gets the attributes
+     * @return
+     */
+    public Attribute[] getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Gets the output classes
+     * @return
+     */
+    public Attribute getOutputClasses() {
+        return outputClasses;
+    }
+
+    /**
+     * Creates a string representation of the rows
+     */
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int row = 0; row < rows; row++) {
+            for (int i = 0; i < attributes.length; i++) {
+                sb.append(attributes[i].getValue(getValue(i, row)) + " ");
+            }
+            sb.append(outputClasses.getValue(getLabel(row)) + "\n");
+        }
+        return sb.toString();
+    }
+}
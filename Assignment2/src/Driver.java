@@ -1,5 +1,7 @@
 import java.io.*;
+import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Tanner Turba
@@ -22,16 +24,30 @@ public class Driver {
     private int verbosity = 1;
     private boolean shouldPrintTree = false;
     private int splitLimit = -1;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int minForkSize = 256;
+    private int numOfTrees = 0;
+    private int numOfCandidates = -1;
+    private long seed = new Random().nextLong();
+    private String modelOutName = null;
+    private String modelInName = null;
+    private String orderedAttrs = null;
+    private double pruningFraction = 0.0;
+    private double alpha = -1.0;
+    private int numOfRounds = 0;
+    private double learningRate = 0.1;
+    private String metricsFileName = null;
 
     // Decision tree related attributes
     private Attribute[] attributes;
     private Attribute outputClasses;
-    private ArrayList<Point> points = new ArrayList<>();
-    private ArrayList<Point> trainingSet;
-    private ArrayList<Point> validationSet;
+    private Dataset data;
+    private int[] order;
     private StringBuilder sb = new StringBuilder();
     private Node root;
-    private PriorityQueue<Node> frontier = new PriorityQueue<>();
+    private Forest forest;
+    private Model model;
+    private Metrics metrics;
     
     /**
      * Constructor that processes command line args
@@ -80,6 +96,61 @@ public class Driver {
                     splitLimit = Integer.parseInt(args[++i]);
                     break;
 
+                case "-j": 
+                    threads = Integer.parseInt(args[++i]);
+                    if (threads <= 0) {
+                        threads = Runtime.getRuntime().availableProcessors();
+                    }
+                    break;
+
+                case "-n": 
+                    minForkSize = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-F": 
+                    numOfTrees = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-A": 
+                    numOfCandidates = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-R": 
+                    seed = Long.parseLong(args[++i]);
+                    break;
+
+                case "-o": 
+                    modelOutName = args[++i];
+                    break;
+
+                case "-m": 
+                    modelInName = args[++i];
+                    break;
+
+                case "-N": 
+                    orderedAttrs = args[++i];
+                    break;
+
+                case "-P": 
+                    pruningFraction = Double.parseDouble(args[++i]);
+                    break;
+
+                case "-C": 
+                    alpha = Double.parseDouble(args[++i]);
+                    break;
+
+                case "-G": 
+                    numOfRounds = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-L": 
+                    learningRate = Double.parseDouble(args[++i]);
+                    break;
+
+                case "-M": 
+                    metricsFileName = args[++i];
+                    break;
+
                 default :
                 break;
             }
@@ -93,8 +164,28 @@ public class Driver {
             groupSizeLimit = trainingGroupSize;
         }
 
+        // Load a saved model, whose attributes are used to code the rows
+        if (modelInName != null) {
+            try {
+                model = Model.load(modelInName);
+            }
+            catch (IOException e) {
+                System.err.println("Could not load model: " + e.getMessage());
+            }
+        }
+
         // Read from the supplied file name
         readFile();
+
+        // Split the requested attributes at thresholds. A loaded model already knows which are ordered.
+        if (orderedAttrs != null && attributes != null && model == null) {
+            setOrdered(orderedAttrs);
+        }
+
+        // By default, a forest's splits consider the square root of the number of attributes
+        if (numOfCandidates <= 0 && attributes != null) {
+            numOfCandidates = Math.max(1, (int)Math.round(Math.sqrt(attributes.length)));
+        }
     }
 
     /**
@@ -106,41 +197,85 @@ public class Driver {
             return;
         }
 
-        // Load full data set from file
+        // Load full data set from file, coding the rows with the model's attributes if one was loaded
         try {
-            Scanner scanner = new Scanner(new File(filename));
-            int numOfAttrs = -1;
-
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine().trim();
-
-                // Not a comment
-                if (!line.equals("") && line.charAt(0) != '#') {
-                    if (numOfAttrs < 0 && Character.isDigit(line.charAt(0))) {
-                        numOfAttrs = Integer.parseInt(line);
-                        attributes = new Attribute[numOfAttrs];
-
-                        // Read attrs
-                        for (int i = 0; i < numOfAttrs; i++) {
-                            line = scanner.nextLine();
-                            attributes[i] = new Attribute(line);
-                        }   
-                    }
-                    else if (line.charAt(0) == ':') {
-                        // Read output classes
-                        outputClasses = new Attribute("output classes " + line);
-                    }
-                    else {
-                        // Read datapoints
-                        points.add(new Point(line, attributes));
-                    }
-                }
+            if (model != null) {
+                data = DataReader.read(filename, model.getAttributes(), model.getOutputClasses());
+            }
+            else {
+                data = DataReader.read(filename, null, null);
+            }
+            if (data != null) {
+                attributes = data.getAttributes();
+                outputClasses = data.getOutputClasses();
             }
-            scanner.close();
         } 
-        catch (FileNotFoundException e) {
+        catch (NoSuchFileException e) {
             System.err.println("No such file or directory: " + filename);
         }
+        catch (IOException e) {
+            System.err.println(String.format("Could not read %s: %s", filename, e.getMessage()));
+        }
+
+        // Rows are used in file order unless shuffled
+        if (data != null) {
+            order = new int[data.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+        }
+    }
+
+    /**
+     * Marks attributes as ordered, so their values are split at a threshold
+     * in the order they were declared instead of each getting a branch.
+     * Attributes with values that were not declared are left unordered.
+     * @param list "all", or a comma separated list of attribute numbers, starting from 1
+     */
+    private void setOrdered(String list) {
+        if (list.equals("all")) {
+            for (Attribute attribute : attributes) {
+                setOrdered(attribute);
+            }
+            return;
+        }
+        for (String number : list.split(",")) {
+            int i = Integer.parseInt(number.trim()) - 1;
+            if (i < 0 || i >= attributes.length) {
+                System.err.println(String.format("No attribute %d to order", i + 1));
+                continue;
+            }
+            setOrdered(attributes[i]);
+        }
+    }
+
+    /**
+     * Marks an attribute as ordered, if all of its values were declared
+     * @param attribute the attribute
+     */
+    private void setOrdered(Attribute attribute) {
+        try {
+            attribute.setOrdered(true);
+        }
+        catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the attributes read from the file
+     * @return
+     */
+    Attribute[] getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Gets the data points read from the file
+     * @return
+     */
+    Dataset getData() {
+        return data;
     }
 
     /**
@@ -155,23 +290,49 @@ public class Driver {
         }
         sb.append(String.format("%s\n", outputClasses));
 
-        for (Point point : points) {
-            sb.append(String.format("%s", point));
-        }
+        sb.append(data);
 
         return sb.toString();
     }
 
     /**
      * Learns the supplied data points by generating a decision tree.
+     * Every trial of every group size is a separate task, and the tasks
+     * run together on a pool unless a single thread is requested. The
+     * report is assembled afterwards in the order the trials were made.
      */
     public void decisionTreeLearn() {
+        // Nothing to learn if the file could not be read
+        if (data == null) {
+            return;
+        }
+
         if (isRandomized) {
-            Collections.shuffle(points);
+            shuffle(order, new Random());
+        }
+
+        // Trials and subtrees are run in parallel unless a single thread is requested
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+
+        // Create a task for each trial of each group size
+        ArrayList<Callable<Trial>> tasks = new ArrayList<>();
+        for (int groupSize = trainingGroupSize; groupSize < order.length && groupSize <= groupSizeLimit; groupSize += groupSizeIncrememnt) {
+            int size = groupSize;
+            for (int trial = 1; trial <= numOfTrials; trial++) {
+                tasks.add(() -> runTrial(size, pool));
+            }
+        }
+        // Record what building the trees costs, if requested
+        metrics = metricsFileName != null ? new Metrics() : null;
+        long startTime = System.nanoTime();
+        List<Trial> trials = runTasks(tasks, pool);
+        if (metrics != null) {
+            metrics.setLearnNanos(System.nanoTime() - startTime);
         }
 
         // For all groupsizes
-        for (int groupSize = trainingGroupSize; groupSize < points.size() && groupSize <= groupSizeLimit; groupSize += groupSizeIncrememnt) {
+        int task = 0;
+        for (int groupSize = trainingGroupSize; groupSize < order.length && groupSize <= groupSizeLimit; groupSize += groupSizeIncrememnt) {
             double trainingEst = 0.0;
             double validationEst = 0.0;
             int trainingPts = 0;
@@ -184,46 +345,43 @@ public class Driver {
             
             // For each trial of specified group size
             for (int trial = 1; trial <= numOfTrials; trial++) {
-                double trialTrainingEst = 0.0;
-                double trialValidationEst = 0.0;
-                int trialTrainingPts = 0;
-                int trialValidationPts = 0;
-
-                // Create the training set and the validation set with whatever is left over
-                trainingSet = new ArrayList<>(points.subList(0, groupSize));
-                validationSet = new ArrayList<>(points.subList(groupSize, points.size()));
-        
-                // Supply all necessary attributes to the root node and learn the data
-                root = new Node(trainingSet, attributes, verbosity, 0);
-                String output;
-                if (splitLimit > 0) {
-                    output = root.learn(depthLimit, splitLimit, frontier);
-                }
-                else {
-                    output = root.learn(depthLimit, -1, null);
-                }
-                
-                // Get training and validation estimates
-                trialTrainingEst = guess(root, trainingSet);
-                trialValidationEst = guess(root, validationSet);
-                trialTrainingPts = trainingSet.size();
-                trialValidationPts = validationSet.size();
+                Trial result = trials.get(task++);
+                root = result.root;
+                forest = result.forest;
+
+                // Nodes are numbered in trial order, after every tree is built
+                String output = result.root != null && result.forest == null ? root.describe() : "";
 
                 if (verbosity >= 2) {
                     sb.append(String.format("  * Trial %d:\n", trial));
-                    if (verbosity >= 3) {
+                    if (verbosity >= 3 && result.booster != null) {
+                        sb.append("    * Begining gradient boosting\n");
+                        sb.append(String.format("    * Learned ensemble has %d trees and %d nodes.\n", result.booster.size(), result.booster.getNodeCount()));
+                    }
+                    else if (verbosity >= 3 && result.forest != null) {
+                        sb.append("    * Begining random forest learning\n");
+                        sb.append(String.format("    * Learned forest has %d trees and %d nodes.\n", result.forest.size(), result.forest.getNodeCount()));
+                    }
+                    else if (verbosity >= 3) {
                         sb.append("    * Begining decision tree learning\n");
                         sb.append(output);
                         sb.append(String.format("    * Learned tree has %d nodes.\n", Node.getNodeCount()));
+                        if (result.isPruned) {
+                            sb.append(String.format("    * Pruning removed %d of %d nodes.\n", result.numOfPruned, result.numOfNodes));
+                        }
+                        if (verbosity >= 4 && root.getFrontier() != null) {
+                            Frontier frontier = root.getFrontier();
+                            sb.append(String.format("    * Frontier has %d nodes left with %.4f pending gain (best %.4f).\n", frontier.size(), frontier.getPendingGain(), frontier.getBestGain()));
+                        }
                     }
-                    sb.append(String.format("    Training and validation accuracy:%12.6f%12.6f\n\n", trialTrainingEst / trialTrainingPts, trialValidationEst / trialValidationPts));
+                    sb.append(String.format("    Training and validation accuracy:%12.6f%12.6f\n\n", result.trainingEst / result.trainingPts, result.validationEst / result.validationPts));
                 }
 
                 // Sum trial estimates with total estimates
-                trainingEst += trialTrainingEst;
-                validationEst += trialValidationEst;
-                trainingPts += trialTrainingPts;
-                validationPts += trialValidationPts;
+                trainingEst += result.trainingEst;
+                validationEst += result.validationEst;
+                trainingPts += result.trainingPts;
+                validationPts += result.validationPts;
             }
 
             if (verbosity >= 1) {
@@ -231,57 +389,201 @@ public class Driver {
                 sb.append(String.format("    Training and validation accuracy:%12.6f%12.6f\n\n", trainingEst / trainingPts, validationEst / validationPts));
             }
         }
+        if (pool != null) {
+            pool.shutdown();
+        }
         System.out.println(sb);
+        writeMetrics();
     }
 
     /**
-     * Using the supplied tree, guess the output
-     * class for each point in the supplied set.
-     * @param root the root node
-     * @param set the set of data points
-     * @return the rate of successful guesses
+     * Writes the metrics of the trees that were built as JSON, to the
+     * metrics file or to standard output if the file name is "-"
      */
-    public double guess(Node root, ArrayList<Point> set) {
-        double correctCount = 0;
-        for (Point point : set) {
-            char result = decisionTreePredict(root, point);
-            if (result == point.getOutput()) {
-                correctCount++;
+    private void writeMetrics() {
+        if (metrics == null) {
+            return;
+        }
+        if (metricsFileName.equals("-")) {
+            System.out.print(metrics.toJson());
+            return;
+        }
+        try (PrintWriter writer = new PrintWriter(new FileWriter(metricsFileName))) {
+            writer.print(metrics.toJson());
+        }
+        catch (IOException e) {
+            System.err.println("Could not write metrics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the metrics of the trees built by the last call to decisionTreeLearn
+     * @return the metrics, or null if none were requested
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Builds a tree for one trial and finds its accuracy. The trial has its
+     * own training set, validation set, tree and frontier, so trials can run
+     * at the same time.
+     * @param groupSize the size of the training set
+     * @param pool the pool to grow subtrees on, or null to grow them on this thread
+     * @return the results of the trial
+     */
+    private Trial runTrial(int groupSize, ForkJoinPool pool) {
+        // Create the training set and the validation set with whatever is left over
+        int[] trainingSet = Arrays.copyOfRange(order, 0, groupSize);
+        int[] validationSet = Arrays.copyOfRange(order, groupSize, order.length);
+
+        // Learn boosted trees or a forest instead of a single tree, if requested
+        Trial trial = new Trial();
+        if (numOfRounds > 0) {
+            // Boosted trees are shallow, so they have a depth limit of their own
+            trial.booster = new Booster(data, trainingSet, numOfRounds, learningRate, depthLimit > 0 ? depthLimit : 3);
+            trial.trainingEst = trial.booster.countCorrect(trainingSet);
+            trial.validationEst = trial.booster.countCorrect(validationSet);
+            trial.trainingPts = trainingSet.length;
+            trial.validationPts = validationSet.length;
+            return trial;
+        }
+        if (numOfTrees > 0) {
+            trial.forest = new Forest(data, trainingSet, numOfTrees, numOfCandidates, depthLimit, seed, pool);
+            trial.root = trial.forest.getFirstRoot();
+            trial.trainingEst = trial.forest.countCorrect(trainingSet);
+            trial.validationEst = trial.forest.countCorrect(validationSet);
+            trial.trainingPts = trainingSet.length;
+            trial.validationPts = validationSet.length;
+            return trial;
+        }
+
+        // Supply all necessary attributes to the root node and learn the data
+        // Hold out the end of the training set for reduced-error pruning, if requested
+        int[] learningSet = trainingSet;
+        int[] pruningSet = null;
+        int numOfHeldOut = (int)Math.round(trainingSet.length * pruningFraction);
+        if (numOfHeldOut > 0 && numOfHeldOut < trainingSet.length) {
+            learningSet = Arrays.copyOfRange(trainingSet, 0, trainingSet.length - numOfHeldOut);
+            pruningSet = Arrays.copyOfRange(trainingSet, trainingSet.length - numOfHeldOut, trainingSet.length);
+        }
+
+        trial.root = new Node(data, learningSet, verbosity, 0);
+        trial.root.setMetrics(metrics);
+        if (splitLimit > 0) {
+            trial.root.build(depthLimit, splitLimit, new Frontier(), null, minForkSize);
+        }
+        else {
+            trial.root.build(depthLimit, -1, null, pool, minForkSize);
+        }
+
+        // Prune the tree, so the smaller tree is the one that is compiled and saved
+        if (alpha >= 0.0 || pruningSet != null) {
+            trial.isPruned = true;
+            trial.root.keepExamined();
+            trial.numOfNodes = trial.root.countNodes();
+            if (alpha >= 0.0) {
+                trial.numOfPruned += Pruner.costComplexity(trial.root, alpha);
+            }
+            if (pruningSet != null) {
+                trial.numOfPruned += Pruner.reducedError(trial.root, data, pruningSet);
             }
         }
-        return correctCount;
+
+        // Get training and validation estimates
+        CompiledTree tree = new CompiledTree(trial.root);
+        trial.trainingEst = guess(tree, trainingSet);
+        trial.validationEst = guess(tree, validationSet);
+        trial.trainingPts = trainingSet.length;
+        trial.validationPts = validationSet.length;
+        return trial;
     }
 
     /**
-     * Make a prediction for an individual point 
-     * @param node the current node in the tree
-     * @param x the data point
-     * @return the predicted output for the data point
+     * Runs the tasks on the pool, or in order on the current thread if there is no pool.
+     * @param tasks the tasks to run
+     * @param pool the pool, or null
+     * @return the results of each task, in the same order as the tasks
      */
-    public char decisionTreePredict(Node node, Point x) {
-        Map<Character, Node> dir = node.getDirectory();
-        if (dir.isEmpty()) {
-            // At a leaf node, so return output
-            return node.getOutput();
+    private List<Trial> runTasks(List<Callable<Trial>> tasks, ForkJoinPool pool) {
+        List<Trial> results = new ArrayList<>();
+        try {
+            if (pool == null || tasks.size() <= 1) {
+                for (Callable<Trial> task : tasks) {
+                    results.add(task.call());
+                }
+                return results;
+            }
+
+            for (Future<Trial> future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
         }
+        catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        return results;
+    }
+
+    /**
+     * The results of one trial
+     */
+    private static class Trial {
+        private Node root;
+        private Forest forest;
+        private Booster booster;
+        private double trainingEst;
+        private double validationEst;
+        private int trainingPts;
+        private int validationPts;
+        private boolean isPruned;
+        private int numOfNodes;
+        private int numOfPruned;
+    }
 
-        int attrIndex = node.getAttrIndex();
-        Node nextNode = dir.get(x.getInputs()[attrIndex]);
-        if (nextNode == null) {
-            // No branch for current attr value, return best guess
-            return node.getOutput();
+    /**
+     * Shuffles the rows
+     * @param rows the rows
+     * @param random the source of randomness
+     */
+    private static void shuffle(int[] rows, Random random) {
+        for (int i = rows.length; i > 1; i--) {
+            int j = random.nextInt(i);
+            int temp = rows[i - 1];
+            rows[i - 1] = rows[j];
+            rows[j] = temp;
         }
-        // Recurse to next node
-        return decisionTreePredict(nextNode, x);
+    }
+
+    /**
+     * Using the supplied tree, guess the output
+     * class for each row in the supplied set.
+     * @param root the root node
+     * @param set the rows of the dataset
+     * @return the rate of successful guesses
+     */
+    public double guess(Node root, int[] set) {
+        return guess(new CompiledTree(root), set);
+    }
+
+    /**
+     * Using the supplied compiled tree, guess the output
+     * class for each row in the supplied set.
+     * @param tree the compiled tree
+     * @param set the rows of the dataset
+     * @return the rate of successful guesses
+     */
+    public double guess(CompiledTree tree, int[] set) {
+        return tree.countCorrect(data, set);
     }
     
     /**
      * Prints the completed tree
      */
     public void printTree() {
-        if (shouldPrintTree) {
+        if (shouldPrintTree && root != null) {
             StringBuilder sb = new StringBuilder("----------------------------------\n");
-            sb.append("* Final decision tree:\n");
+            sb.append(numOfTrees > 0 ? "* First tree of the final forest:\n" : "* Final decision tree:\n");
             sb.append(printNode(root, 0));
             System.out.println(sb);
         }
@@ -296,34 +598,108 @@ public class Driver {
     private String printNode(Node n, int depth) {
         StringBuilder sb = new StringBuilder();
         
-        if (n.getDirectory().isEmpty()) {
+        if (n.isLeaf()) {
             // leaf node
-            String output = outputClasses.getValMap().get(n.getOutput());
+            String output = outputClasses.getValueName(n.getOutput());
             sb.append(String.format("Leaf: Predict [%s]\n", output).indent(depth));
         }
         else {
             // child node
-            String attrName = attributes[n.getAttrIndex()].getName();
+            Attribute attribute = attributes[n.getAttrIndex()];
+            String attrName = attribute.getName();
             sb.append(String.format("Node: Split on [%s]\n", attrName).indent(depth));
 
             // branch data
-            for (Map.Entry<Character, Node> branch : n.getDirectory().entrySet()) {
-                String branchName = attributes[n.getAttrIndex()].getValMap().get(branch.getKey());
-                sb.append(String.format("Branch [%s]=[%s]\n", attrName, branchName != null ? branchName : branch.getKey()).indent(depth + 2));
-                sb.append(printNode(branch.getValue(), depth + 4));
+            Node[] children = n.getChildren();
+            if (n.getThreshold() >= 0) {
+                String value = attribute.getLabel(n.getThreshold());
+                sb.append(String.format("Branch [%s]<=[%s]\n", attrName, value).indent(depth + 2));
+                sb.append(printNode(children[0], depth + 4));
+                sb.append(String.format("Branch [%s]>[%s]\n", attrName, value).indent(depth + 2));
+                sb.append(printNode(children[1], depth + 4));
+                return sb.toString();
+            }
+            for (int code = 0; code < children.length; code++) {
+                if (children[code] != null) {
+                    String branchName = attribute.getValueName(code);
+                    sb.append(String.format("Branch [%s]=[%s]\n", attrName, branchName != null ? branchName : attribute.getValue(code)).indent(depth + 2));
+                    sb.append(printNode(children[code], depth + 4));
+                }
             }
         }
         return sb.toString();
     }
 
+    /**
+     * Saves the last tree or forest that was learned, if a model file was given
+     */
+    public void saveModel() {
+        if (modelOutName == null || root == null) {
+            return;
+        }
+        CompiledTree[] trees = forest != null ? forest.getTrees() : new CompiledTree[] { new CompiledTree(root) };
+        try {
+            new Model(attributes, outputClasses, trees).write(modelOutName);
+            if (verbosity >= 1) {
+                System.out.println(String.format("* Saved model with %d tree(s) to %s", trees.length, modelOutName));
+            }
+        }
+        catch (IOException e) {
+            System.err.println("Could not save model: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Scores every row of the file with the loaded model instead of learning
+     * a tree. The predicted output class of each row is listed at verbosity 2.
+     */
+    public void score() {
+        if (model == null || data == null) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        int[] votes = new int[outputClasses.getNumOfValues()];
+        int correctCount = 0;
+        for (int row = 0; row < data.size(); row++) {
+            int prediction = model.predict(data, row, votes);
+            if (prediction == data.getLabel(row)) {
+                correctCount++;
+            }
+            if (verbosity >= 2) {
+                String output = outputClasses.getValueName(prediction);
+                sb.append(String.format("  Row %d: Predict [%s]\n", row + 1, output != null ? output : outputClasses.getValue(prediction)));
+            }
+        }
+        if (verbosity >= 1) {
+            sb.append(String.format("* Scored %d rows with %s (%d tree(s))\n", data.size(), modelInName, model.getTrees().length));
+            sb.append(String.format("    Accuracy:%12.6f\n", (double)correctCount / data.size()));
+        }
+        System.out.println(sb);
+    }
+
     public static void main(String[] args) {
         // create instance
         Driver driver = new Driver(args);
 
+        // score the rows with a saved model, if one was given
+        if (driver.modelInName != null) {
+            driver.score();
+            return;
+        }
+
+        // a boosted ensemble has no single tree to print or save
+        if (driver.numOfRounds > 0 && (driver.shouldPrintTree || driver.modelOutName != null)) {
+            System.err.println("Gradient boosting (-G) does not support printing (-p) or saving (-o) the tree");
+            return;
+        }
+
         // learn the data by building the decision tree
         driver.decisionTreeLearn();
 
         // print the tree
         driver.printTree();
+
+        // save the tree, if requested
+        driver.saveModel();
     }
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+/**
+ * Tanner Turba
+ * October 30, 2024
+ * CS 557 - Machine Learning
+ * 
+ * This class calculates entropy from integer counts. The entropy of a
+ * set of N points with c_k points in each output class is
+ * (N log2 N - sum of c_k log2 c_k) / N, so with a table of n log2 n for
+ * every count that can occur, no logarithms are needed while scoring splits.
+ */
+public class Entropy {
+    private static double[] nLog2N = new double[] { 0.0 };
+
+    /**
+     * Gets a table of n log2 n, indexed by n, that covers counts up to the specified
+     * number. The table is shared and only ever replaced by a larger one, so it can be
+     * read by any number of threads.
+     * @param maxCount the largest count that will be looked up
+     * @return the table
+     */
+    public static synchronized double[] getTable(int maxCount) {
+        if (maxCount >= nLog2N.length) {
+            double[] table = new double[Math.max(maxCount + 1, nLog2N.length * 2)];
+            System.arraycopy(nLog2N, 0, table, 0, nLog2N.length);
+            for (int n = nLog2N.length; n < table.length; n++) {
+                table[n] = n * (Math.log(n) / Math.log(2));
+            }
+            nLog2N = table;
+        }
+        return nLog2N;
+    }
+
+    /**
+     * Sums n log2 n over a range of counts
+     * @param table the table from getTable
+     * @param counts holds the counts
+     * @param offset the index of the first count
+     * @param length the number of counts
+     * @return the sum
+     */
+    public static double sum(double[] table, int[] counts, int offset, int length) {
+        double sum = 0.0;
+        for (int k = offset; k < offset + length; k++) {
+            sum += table[counts[k]];
+        }
+        return sum;
+    }
+
+    /**
+     * Calculates the entropy of a set of points
+     * @param table the table from getTable
+     * @param counts holds the number of points in each output class
+     * @param offset the index of the first count
+     * @param length the number of output classes
+     * @return the entropy
+     */
+    public static double of(double[] table, int[] counts, int offset, int length) {
+        int total = 0;
+        for (int k = offset; k < offset + length; k++) {
+            total += counts[k];
+        }
+        if (total == 0) {
+            return 0.0;
+        }
+        return (table[total] - sum(table, counts, offset, length)) / total;
+    }
+}
@@ -0,0 +1,167 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Tanner Turba
+ * October 30, 2024
+ * CS 557 - Machine Learning
+ *
+ * This class is a random forest, which is a set of decision trees that
+ * vote on the output class. Each tree is learned from a bootstrap sample
+ * of the training rows, drawn with replacement, and only considers a
+ * random subset of the remaining attributes at each split. The trees
+ * share the one dataset, so each only needs its own array of row indices
+ * while it is learned, and is kept afterwards as a compiled tree.
+ */
+public class Forest {
+    private Dataset data;
+    private CompiledTree[] trees;
+    private Node firstRoot;
+
+    /**
+     * Learns a forest, with the trees learned in parallel on a pool
+     * @param data the dataset
+     * @param rows the training rows
+     * @param numOfTrees the number of trees
+     * @param numOfCandidates the number of attributes each split considers
+     * @param depthLimit the depth limit of each tree
+     * @param seed the seed that each tree's source of randomness is drawn from
+     * @param pool the pool to learn the trees on, or null to learn them on this thread
+     */
+    public Forest(Dataset data, int[] rows, int numOfTrees, int numOfCandidates, int depthLimit, long seed, ForkJoinPool pool) {
+        this.data = data;
+
+        // Draw the seeds up front so the forest does not depend on the order trees are learned in
+        Random random = new Random(seed);
+        ArrayList<Callable<Node>> tasks = new ArrayList<>();
+        for (int t = 0; t < numOfTrees; t++) {
+            long treeSeed = random.nextLong();
+            tasks.add(() -> learnTree(rows, numOfCandidates, depthLimit, new Random(treeSeed)));
+        }
+
+        // Learn the trees, keeping only the compiled trees and the first tree for printing
+        trees = new CompiledTree[numOfTrees];
+        try {
+            if (pool == null) {
+                for (int t = 0; t < numOfTrees; t++) {
+                    keep(t, tasks.get(t).call());
+                }
+            }
+            else {
+                List<Future<Node>> futures = pool.invokeAll(tasks);
+                for (int t = 0; t < numOfTrees; t++) {
+                    keep(t, futures.get(t).get());
+                }
+            }
+        }
+        catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Learns one tree from a bootstrap sample of the rows
+     * @param rows the training rows
+     * @param numOfCandidates the number of attributes each split considers
+     * @param depthLimit the depth limit of the tree
+     * @param random the tree's source of randomness
+     * @return the root of the tree
+     */
+    private Node learnTree(int[] rows, int numOfCandidates, int depthLimit, Random random) {
+        // Rows drawn more than once are simply repeated in the sample
+        int[] sample = new int[rows.length];
+        for (int i = 0; i < sample.length; i++) {
+            sample[i] = rows[random.nextInt(rows.length)];
+        }
+
+        Node root = new Node(data, sample, 0, 0, random, numOfCandidates);
+        root.build(depthLimit, -1, null, null, Integer.MAX_VALUE);
+        return root;
+    }
+
+    /**
+     * Compiles a learned tree
+     * @param t the number of the tree
+     * @param root the root of the tree
+     */
+    private void keep(int t, Node root) {
+        trees[t] = new CompiledTree(root);
+        if (t == 0) {
+            firstRoot = root;
+        }
+    }
+
+    /**
+     * Predicts the output class of a row by majority vote. Ties go to the
+     * output class with the lowest code.
+     * @param row the row
+     * @param votes an array to count the votes in, with one entry per output class
+     * @return the code of the predicted output class
+     */
+    public int predict(int row, int[] votes) {
+        Arrays.fill(votes, 0);
+        for (CompiledTree tree : trees) {
+            votes[tree.predict(data, row)]++;
+        }
+
+        int result = 0;
+        for (int k = 1; k < votes.length; k++) {
+            if (votes[k] > votes[result]) {
+                result = k;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Counts the rows whose output class is predicted correctly
+     * @param rows the rows
+     * @return the number of correct predictions
+     */
+    public int countCorrect(int[] rows) {
+        int[] votes = new int[data.getOutputClasses().getNumOfValues()];
+        int correctCount = 0;
+        for (int row : rows) {
+            if (predict(row, votes) == data.getLabel(row)) {
+                correctCount++;
+            }
+        }
+        return correctCount;
+    }
+
+    /**
+     * Gets the total number of nodes in the trees
+     * @return
+     */
+    public int getNodeCount() {
+        int count = 0;
+        for (CompiledTree tree : trees) {
+            count += tree.size();
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of trees
+     * @return
+     */
+    public int size() {
+        return trees.length;
+    }
+
+    /**
+     * Gets the compiled trees
+     * @return
+     */
+    public CompiledTree[] getTrees() {
+        return trees;
+    }
+
+    /**
+     * Gets the root of the first tree
+     * @return
+     */
+    public Node getFirstRoot() {
+        return firstRoot;
+    }
+}
@@ -0,0 +1,166 @@
+import java.util.*;
+
+/**
+ * Tanner Turba
+ * October 30, 2024
+ * CS 557 - Machine Learning
+ *
+ * This class is the frontier of a tree grown best first with a split limit.
+ * It is a binary max-heap of the nodes that can be split next, ordered by
+ * their cached information gain, with ties going to the node added first.
+ * A node's gain is found once when it is examined and never changes while
+ * it waits, so the heap only needs to add nodes and take the best one.
+ */
+public class Frontier {
+    private Node[] heap = new Node[16];
+    private double[] gains = new double[16];
+    private long[] orders = new long[16];
+    private int size = 0;
+    private long added = 0;
+    private double pendingGain = 0.0;
+
+    /**
+     * Adds a node that has been examined and can be split
+     * @param node the node
+     */
+    public void add(Node node) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+            gains = Arrays.copyOf(gains, size * 2);
+            orders = Arrays.copyOf(orders, size * 2);
+        }
+        heap[size] = node;
+        gains[size] = node.getInfoGain();
+        orders[size] = added++;
+        pendingGain += gains[size];
+        size++;
+        siftUp(size - 1);
+    }
+
+    /**
+     * Removes the node with the most gain, filling the gap with the last node
+     * @return the node, or null if the frontier is empty
+     */
+    public Node poll() {
+        if (size == 0) {
+            return null;
+        }
+        Node result = heap[0];
+        pendingGain -= gains[0];
+        size--;
+        if (size > 0) {
+            move(size, 0);
+            siftDown(0);
+        }
+        heap[size] = null;
+        if (size == 0) {
+            // Avoid carrying rounding error into the next tree
+            pendingGain = 0.0;
+        }
+        return result;
+    }
+
+    /**
+     * Moves a node towards the top until its parent comes before it
+     * @param i the position of the node
+     */
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!before(i, parent)) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    /**
+     * Moves a node towards the bottom until it comes before its children
+     * @param i the position of the node
+     */
+    private void siftDown(int i) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && before(child + 1, child)) {
+                child++;
+            }
+            if (!before(child, i)) {
+                break;
+            }
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    /**
+     * Determines if the node at one position should be split before the node at another
+     * @param i the first position
+     * @param j the second position
+     * @return
+     */
+    private boolean before(int i, int j) {
+        return gains[i] > gains[j] || (gains[i] == gains[j] && orders[i] < orders[j]);
+    }
+
+    /**
+     * Swaps the nodes at two positions
+     * @param i the first position
+     * @param j the second position
+     */
+    private void swap(int i, int j) {
+        Node node = heap[i];
+        double gain = gains[i];
+        long order = orders[i];
+        move(j, i);
+        heap[j] = node;
+        gains[j] = gain;
+        orders[j] = order;
+    }
+
+    /**
+     * Moves the node at one position to another, overwriting what was there
+     * @param from the position to move from
+     * @param to the position to move to
+     */
+    private void move(int from, int to) {
+        heap[to] = heap[from];
+        gains[to] = gains[from];
+        orders[to] = orders[from];
+    }
+
+    /**
+     * Determines if there are no nodes to split
+     * @return
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the number of nodes that can be split next
+     * @return
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the total information gain of the nodes that can be split next
+     * @return
+     */
+    public double getPendingGain() {
+        return pendingGain;
+    }
+
+    /**
+     * Gets the most information gain of any node that can be split next
+     * @return the gain, or 0 if the frontier is empty
+     */
+    public double getBestGain() {
+        return size == 0 ? 0.0 : gains[0];
+    }
+}
@@ -0,0 +1,230 @@
+import java.util.concurrent.atomic.*;
+
+/**
+ * Tanner Turba
+ * October 30, 2024
+ * CS 557 - Machine Learning
+ *
+ * This class counts where the time goes while decision trees are built.
+ * Each phase of growing a node has a counter and a timer in nanoseconds:
+ * scoring the attributes (gain evaluation), moving the rows into their
+ * branches (partitioning) and making the child nodes (child construction).
+ * The sizes of the examined nodes are kept in a histogram for each depth,
+ * with buckets that double in size, and the bytes allocated for the tree
+ * are estimated from the arrays and nodes that are made.
+ *
+ * Subtrees and trials can be grown on several threads at once, so every
+ * count is kept in adders and atomic arrays that any thread can add to.
+ */
+public class Metrics {
+    private static final int MAX_DEPTH = 64;
+    private static final int NUM_OF_BUCKETS = 32;
+
+    // The size of a Node object with compressed references, without the arrays it points to
+    static final int NODE_BYTES = 120;
+
+    private LongAdder trees = new LongAdder();
+    private LongAdder nodes = new LongAdder();
+    private LongAdder splits = new LongAdder();
+    private LongAdder gainCalls = new LongAdder();
+    private LongAdder gainNanos = new LongAdder();
+    private LongAdder attributesScored = new LongAdder();
+    private LongAdder rowsScanned = new LongAdder();
+    private LongAdder partitionNanos = new LongAdder();
+    private LongAdder rowsPartitioned = new LongAdder();
+    private LongAdder childCalls = new LongAdder();
+    private LongAdder children = new LongAdder();
+    private LongAdder childNanos = new LongAdder();
+    private LongAdder allocatedBytes = new LongAdder();
+    private AtomicLongArray depthNodes = new AtomicLongArray(MAX_DEPTH);
+    private AtomicLongArray depthRows = new AtomicLongArray(MAX_DEPTH);
+    private AtomicLongArray sizeHistogram = new AtomicLongArray(MAX_DEPTH * NUM_OF_BUCKETS);
+    private long learnNanos = 0;
+
+    /**
+     * Counts a tree that is about to be built
+     */
+    public void addTree() {
+        trees.increment();
+    }
+
+    /**
+     * Counts an examined node
+     * @param depth the depth of the node, where depths past the last are counted as the last
+     * @param size the number of rows in the node
+     */
+    public void addNode(int depth, int size) {
+        int d = Math.min(depth, MAX_DEPTH - 1);
+        nodes.increment();
+        depthNodes.incrementAndGet(d);
+        depthRows.addAndGet(d, size);
+        sizeHistogram.incrementAndGet(d * NUM_OF_BUCKETS + bucket(size));
+    }
+
+    /**
+     * Counts a call to score the attributes of a node
+     * @param nanos the time it took
+     * @param numOfAttributes the number of attributes scored
+     * @param size the number of rows in the node
+     */
+    public void addGain(long nanos, int numOfAttributes, int size) {
+        gainCalls.increment();
+        gainNanos.add(nanos);
+        attributesScored.add(numOfAttributes);
+        rowsScanned.add((long)numOfAttributes * size);
+    }
+
+    /**
+     * Counts the partitioning of a node's rows into its branches
+     * @param nanos the time it took
+     * @param size the number of rows in the node
+     */
+    public void addPartition(long nanos, int size) {
+        splits.increment();
+        partitionNanos.add(nanos);
+        rowsPartitioned.add(size);
+    }
+
+    /**
+     * Counts the child nodes made by a split
+     * @param nanos the time it took to make them
+     * @param count the number of children
+     */
+    public void addChildren(long nanos, int count) {
+        childCalls.increment();
+        children.add(count);
+        childNanos.add(nanos);
+        allocatedBytes.add((long)count * NODE_BYTES);
+    }
+
+    /**
+     * Adds to the estimate of the bytes allocated
+     * @param bytes the bytes
+     */
+    public void addAllocation(long bytes) {
+        allocatedBytes.add(bytes);
+    }
+
+    /**
+     * Sets the time the whole learning process took
+     * @param nanos the time
+     */
+    public void setLearnNanos(long nanos) {
+        learnNanos = nanos;
+    }
+
+    /**
+     * Estimates the bytes taken by an array, with a 16 byte header and padding to 8 bytes
+     * @param length the length of the array
+     * @param elementSize the size of each element in bytes
+     * @return
+     */
+    public static long arrayBytes(int length, int elementSize) {
+        return (16 + (long)length * elementSize + 7) & ~7L;
+    }
+
+    /**
+     * Finds the histogram bucket of a node size. Bucket b holds the sizes
+     * from 2^(b - 1) up to 2^b - 1, and bucket 0 holds empty nodes.
+     * @param size the number of rows
+     * @return
+     */
+    private static int bucket(int size) {
+        return Math.min(32 - Integer.numberOfLeadingZeros(size), NUM_OF_BUCKETS - 1);
+    }
+
+    /**
+     * Gets the number of examined nodes
+     * @return
+     */
+    public long getNodeCount() {
+        return nodes.sum();
+    }
+
+    /**
+     * Gets the number of nodes that were split
+     * @return
+     */
+    public long getSplitCount() {
+        return splits.sum();
+    }
+
+    /**
+     * Gets the time spent scoring attributes
+     * @return
+     */
+    public long getGainNanos() {
+        return gainNanos.sum();
+    }
+
+    /**
+     * Gets the time spent partitioning rows
+     * @return
+     */
+    public long getPartitionNanos() {
+        return partitionNanos.sum();
+    }
+
+    /**
+     * Gets the time spent making child nodes
+     * @return
+     */
+    public long getChildNanos() {
+        return childNanos.sum();
+    }
+
+    /**
+     * Gets the estimate of the bytes allocated
+     * @return
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    /**
+     * Creates a JSON representation of the metrics
+     * @return
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append(String.format("  \"trees\": %d,\n", trees.sum()));
+        sb.append(String.format("  \"nodes\": %d,\n", nodes.sum()));
+        sb.append(String.format("  \"splits\": %d,\n", splits.sum()));
+        sb.append(String.format("  \"learnNanos\": %d,\n", learnNanos));
+        sb.append(String.format("  \"allocatedBytesEstimate\": %d,\n", allocatedBytes.sum()));
+        sb.append("  \"phases\": {\n");
+        sb.append(String.format("    \"gainEvaluation\": {\"calls\": %d, \"nanos\": %d, \"attributes\": %d, \"rowsScanned\": %d},\n",
+                gainCalls.sum(), gainNanos.sum(), attributesScored.sum(), rowsScanned.sum()));
+        sb.append(String.format("    \"partitioning\": {\"calls\": %d, \"nanos\": %d, \"rows\": %d},\n",
+                splits.sum(), partitionNanos.sum(), rowsPartitioned.sum()));
+        sb.append(String.format("    \"childConstruction\": {\"calls\": %d, \"children\": %d, \"nanos\": %d}\n",
+                childCalls.sum(), children.sum(), childNanos.sum()));
+        sb.append("  },\n");
+
+        // Only the depths that were reached
+        sb.append("  \"depths\": [");
+        boolean isFirst = true;
+        for (int d = 0; d < MAX_DEPTH; d++) {
+            if (depthNodes.get(d) == 0) {
+                continue;
+            }
+            sb.append(isFirst ? "\n" : ",\n");
+            isFirst = false;
+            sb.append(String.format("    {\"depth\": %d, \"nodes\": %d, \"rows\": %d, \"sizeHistogram\": {", d, depthNodes.get(d), depthRows.get(d)));
+            boolean isFirstBucket = true;
+            for (int b = 0; b < NUM_OF_BUCKETS; b++) {
+                long count = sizeHistogram.get(d * NUM_OF_BUCKETS + b);
+                if (count > 0) {
+                    sb.append(isFirstBucket ? "" : ", ");
+                    sb.append(String.format("\"%d\": %d", b == 0 ? 0 : 1L << (b - 1), count));
+                    isFirstBucket = false;
+                }
+            }
+            sb.append("}}");
+        }
+        sb.append(isFirst ? "]\n" : "\n  ]\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,150 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Tanner Turba
+ * October 30, 2024
+ * CS 557 - Machine Learning
+ *
+ * This class is a learned model that can be saved to a binary file and
+ * loaded again, so rows can be scored without learning the tree again.
+ * The file holds the attributes and output classes with their value
+ * dictionaries, so rows are coded the same way they were when the model
+ * was learned, followed by one or more compiled trees. A model with more
+ * than one tree is a forest, which predicts by majority vote.
+ *
+ * The file is loaded by memory-mapping it, so reading it costs one bulk
+ * copy per array instead of a read call per value.
+ */
+public class Model {
+    private static final int MAGIC = 0x44544D31;
+    private static final int VERSION = 2;
+
+    private Attribute[] attributes;
+    private Attribute outputClasses;
+    private CompiledTree[] trees;
+
+    /**
+     * Creates a model
+     * @param attributes the attributes the trees split on
+     * @param outputClasses the output classes the trees predict
+     * @param trees the compiled trees
+     */
+    public Model(Attribute[] attributes, Attribute outputClasses, CompiledTree[] trees) {
+        this.attributes = attributes;
+        this.outputClasses = outputClasses;
+        this.trees = trees;
+    }
+
+    /**
+     * Writes the model to a file
+     * @param fileName the name of the file
+     * @throws IOException
+     */
+    public void write(String fileName) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            out.writeInt(attributes.length);
+            for (Attribute attribute : attributes) {
+                attribute.write(out);
+            }
+            outputClasses.write(out);
+
+            out.writeInt(trees.length);
+            for (CompiledTree tree : trees) {
+                tree.write(out);
+            }
+        }
+    }
+
+    /**
+     * Loads a model from a file written by write
+     * @param fileName the name of the file
+     * @return the model
+     * @throws IOException
+     */
+    public static Model load(String fileName) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try {
+                if (buffer.getInt() != MAGIC) {
+                    throw new IOException("Not a model file: " + fileName);
+                }
+                int version = buffer.getInt();
+                if (version < 1 || version > VERSION) {
+                    throw new IOException(String.format("Unsupported model version %d in %s", version, fileName));
+                }
+
+                Attribute[] attributes = new Attribute[buffer.getInt()];
+                for (int i = 0; i < attributes.length; i++) {
+                    attributes[i] = Attribute.read(buffer, version);
+                }
+                Attribute outputClasses = Attribute.read(buffer, version);
+
+                CompiledTree[] trees = new CompiledTree[buffer.getInt()];
+                for (int t = 0; t < trees.length; t++) {
+                    trees[t] = CompiledTree.read(buffer);
+                }
+                return new Model(attributes, outputClasses, trees);
+            }
+            catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+                throw new IOException("Malformed model file: " + fileName, e);
+            }
+        }
+    }
+
+    /**
+     * Predicts the output class of a row. A forest predicts by majority vote,
+     * with ties going to the output class with the lowest code.
+     * @param data the dataset, which must be coded with the model's attributes
+     * @param row the row
+     * @param votes an array to count the votes in, with one entry per output class
+     * @return the code of the predicted output class
+     */
+    public int predict(Dataset data, int row, int[] votes) {
+        if (trees.length == 1) {
+            return trees[0].predict(data, row);
+        }
+
+        Arrays.fill(votes, 0);
+        for (CompiledTree tree : trees) {
+            votes[tree.predict(data, row)]++;
+        }
+        int result = 0;
+        for (int k = 1; k < votes.length; k++) {
+            if (votes[k] > votes[result]) {
+                result = k;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the attributes
+     * @return
+     */
+    public Attribute[] getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Gets the output classes
+     * @return
+     */
+    public Attribute getOutputClasses() {
+        return outputClasses;
+    }
+
+    /**
+     * Gets the compiled trees
+     * @return
+     */
+    public CompiledTree[] getTrees() {
+        return trees;
+    }
+}
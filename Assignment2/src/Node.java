@@ -1,4 +1,5 @@
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Tanner Turba
@@ -9,181 +10,348 @@ import java.util.*;
  * class is responsible for the splitting of each node to create
  * the tree.
  */
-public class Node implements Comparable<Node> {
-    private ArrayList<Point> data = null;
-    private ArrayList<Map<Character, Integer>> attributes = new ArrayList<>();
-    private Map<Character, Integer> outputClasses = new HashMap<>();
-    private Map<Character, Node> directory = new HashMap<>();
-    private Attribute[] allAttributes;
+public class Node {
+    private Dataset data = null;
+    private int[] rows;
+    private int from;
+    private int to;
+    private Node parent = null;
+    private int[] classCounts;
+    private int[] table;
+    private int[] candidates;
+    private double[] nLog2N;
+    private double entropy;
+    private Random random = null;
+    private int numOfCandidates = 0;
+    private Node[] children = null;
     private int attrIndex = -1;
+    private int threshold = -1;
+    private int numOfCodes = 0;
     private int verbosity;
     private double infoGain;
     private int depth;
-    private StringBuilder sb = new StringBuilder();
+    private String examination = null;
+    private List<Node> examined = null;
+    private Frontier frontier = null;
+    private Metrics metrics = null;
     private static int nodeNum = 0;
 
     /**
      * Creates a tree node
-     * @param data the contained data points
-     * @param allAttributes all possible attributes
+     * @param data the dataset
+     * @param rows the rows of the dataset contained in the node
      * @param verbosity the verbosity level for output uses
      * @param depth the depth of the node on the tree
      */
-    public Node(ArrayList<Point> data, Attribute[] allAttributes, int verbosity, int depth) {
+    public Node(Dataset data, int[] rows, int verbosity, int depth) {
+        this(data, rows, verbosity, depth, null, 0);
+    }
+
+    /**
+     * Creates a tree node for a tree that only considers a random subset of the
+     * remaining attributes at each split, as in a random forest. Rows may appear
+     * more than once, which weights them by the number of times they appear.
+     * @param data the dataset
+     * @param rows the rows of the dataset contained in the node
+     * @param verbosity the verbosity level for output uses
+     * @param depth the depth of the node on the tree
+     * @param random the source of randomness for choosing attributes, or null to consider all of them
+     * @param numOfCandidates the number of attributes to consider at each split
+     */
+    public Node(Dataset data, int[] rows, int verbosity, int depth, Random random, int numOfCandidates) {
         this.data = data;
-        this.allAttributes = allAttributes;
+        this.rows = rows.clone();
+        this.from = 0;
+        this.to = rows.length;
         this.verbosity = verbosity;
         this.depth = depth;
 
-        // Create a frequency map for each attribute in the data
-        for (int i = 0; i < data.get(0).getInputs().length; i++) {
-            this.attributes.add(i, new HashMap<>());
+        // Count the output classes of the contained rows
+        byte[] labels = data.getLabels();
+        classCounts = new int[data.getOutputClasses().getNumOfValues()];
+        for (int row : rows) {
+            classCounts[labels[row] & 0xFF]++;
         }
-        
-        // For each data point
-        for (Point dataPoint : this.data) {
-            // update the input frequency map(s)
-            char[] inputs = dataPoint.getInputs();
-            for (int i = 0; i < inputs.length; i++) {
-                Map<Character, Integer> attrCounts = this.attributes.get(i);
 
-                if (!attrCounts.containsKey(inputs[i])) {
-                    attrCounts.put(inputs[i], 1);
-                }
-                else {
-                    attrCounts.put(inputs[i], attrCounts.get(inputs[i]) + 1);
-                }
-            } 
-
-            // update the output frequency map
-            char oClass = dataPoint.getOutput();
-            if (!outputClasses.containsKey(oClass)) {
-                outputClasses.put(oClass, 1);
-            }
-            else {
-                outputClasses.put(oClass, outputClasses.get(oClass) + 1);
-            }
+        // A table large enough to count the output classes of any attribute's values,
+        // followed by the class counts of each side of a threshold
+        int maxValues = 0;
+        for (Attribute attribute : data.getAttributes()) {
+            maxValues = Math.max(maxValues, attribute.getNumOfValues());
         }
+        table = new int[(maxValues + 2) * classCounts.length];
+        candidates = new int[data.getAttributes().length];
+        nLog2N = Entropy.getTable(rows.length);
+        entropy = Entropy.of(nLog2N, classCounts, 0, classCounts.length);
+        this.random = random;
+        this.numOfCandidates = numOfCandidates;
     }
 
     /**
-     * Creates a node with predefined attribute frequency maps
-     * @param data the contained data points
-     * @param allAttributes all possible attributes
-     * @param containedAttributes predefined attribute frequency maps
-     * @param verbosity the verbosity level for output uses
-     * @param depth the depth of the node on the tree
+     * Creates a child node, which holds a range of its parent's rows. The whole
+     * tree shares one array of rows and one table for counting.
+     * @param parent the parent node
+     * @param from the index of the child's first row
+     * @param to the index after the child's last row
+     * @param classCounts the number of rows with each output class
      */
-    public Node(ArrayList<Point> data, Attribute[] allAttributes, ArrayList<Map<Character, Integer>> containedAttributes, int verbosity, int depth) {
-        this.data = data;
-        this.allAttributes = allAttributes;
-        this.attributes = containedAttributes;
-        this.verbosity = verbosity;
-        this.depth = depth;
+    private Node(Node parent, int from, int to, int[] classCounts) {
+        this.data = parent.data;
+        this.rows = parent.rows;
+        this.from = from;
+        this.to = to;
+        this.parent = parent;
+        this.classCounts = classCounts;
+        this.table = parent.table;
+        this.candidates = parent.candidates;
+        this.nLog2N = parent.nLog2N;
+        this.entropy = Entropy.of(nLog2N, classCounts, 0, classCounts.length);
+        this.random = parent.random;
+        this.numOfCandidates = parent.numOfCandidates;
+        this.metrics = parent.metrics;
+        this.verbosity = parent.verbosity;
+        this.depth = parent.depth + 1;
+    }
 
-        // For each data point
-        for (Point dataPoint : this.data) {
-            // update the output frequency map
-            char oClass = dataPoint.getOutput();
-            if (!outputClasses.containsKey(oClass)) {
-                outputClasses.put(oClass, 1);
-            }
-            else {
-                outputClasses.put(oClass, outputClasses.get(oClass) + 1);
+    /**
+     * Records what it costs to build the tree below this node. The arrays the
+     * node already holds are counted as allocated for the tree.
+     * @param metrics the metrics to add to, or null to stop recording
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+        if (metrics != null) {
+            metrics.addAllocation(Metrics.NODE_BYTES + Metrics.arrayBytes(rows.length, 4) + Metrics.arrayBytes(classCounts.length, 4)
+                    + Metrics.arrayBytes(table.length, 4) + Metrics.arrayBytes(candidates.length, 4));
+        }
+    }
+
+    /**
+     * Determines if an attribute was split on by an ancestor of the node
+     * @param attr the index of the attribute
+     * @return
+     */
+    private boolean isUsed(int attr) {
+        for (Node n = parent; n != null; n = n.parent) {
+            if (n.attrIndex == attr) {
+                return true;
             }
         }
+        return false;
     }
 
     /**
-     * Examines the node to determine if it should be split.
+     * Examines the node to determine if it should be split. What was found is
+     * kept for the log, which is numbered once the tree is complete so nodes
+     * can be examined in any order.
      * @param depthLimit the depth limit for splitting
-     * @return a string for logging purposes
      */
-    private String examine(int depthLimit) {
+    private void examine(int depthLimit) {
+        if (metrics != null) {
+            metrics.addNode(depth, to - from);
+        }
         StringBuilder sb = new StringBuilder();
-        sb.append(String.format("      Examining node %d (depth=%d): ", Node.nodeNum, depth));
-        Node.nodeNum++;
+        sb.append(String.format("(depth=%d): ", depth));
 
-        // Count the number of attributes left
+        // Count the number of attributes and output classes left. Ordered attributes
+        // can be split on again with another threshold, so they are never used up.
+        Attribute[] attributes = data.getAttributes();
         int attrCount = 0;
-        for (Map<Character, Integer> attribute : attributes) {
-            if (attribute != null) {
+        for (int i = 0; i < attributes.length; i++) {
+            if (attributes[i].isOrdered() || !isUsed(i)) {
                 attrCount++;
             }
         }
+        int classCount = 0;
+        for (int count : classCounts) {
+            if (count > 0) {
+                classCount++;
+            }
+        }
 
         // Consider reasons for not splitting
-        if (outputClasses.size() == 1 || attrCount == 0) {
+        if (classCount == 1 || attrCount == 0) {
             sb.append("node is pure\n");
             attrIndex = Integer.MIN_VALUE;
-            return sb.toString();
         }
         else if (depth == depthLimit) {
             sb.append("node is at max depth\n");
             attrIndex = Integer.MIN_VALUE;
-            return sb.toString();
         }
         else if (attrCount == 0) {
             sb.append("node is out of attributes\n");
             attrIndex = Integer.MIN_VALUE;
-            return sb.toString();
         }
         else {
             sb.append("node is splittable\n");
+
+            // Get the index of the attribute that will provide the most information gain upon splitting
+            attrIndex = importance(sb);
+            if (attrIndex < 0) {
+                sb.append("        no threshold separates the rows\n");
+                attrIndex = Integer.MIN_VALUE;
+            }
         }
-    
-        // Get the index of the attribute that will provide the most information gain upon splitting
-        attrIndex = importance(sb);
-        return sb.toString();
+        examination = sb.toString();
     }
 
     /**
-     * Splits the node
+     * Splits the node. Without a split limit, children holding at least the minimum
+     * fork size of rows are split as separate tasks when running in a ForkJoinPool.
      * @param depthLimit the depth limit of the tree
      * @param splitIsLimited indicates if a split limit is used
-     * @return a string for logging purposes
+     * @param frontier the nodes that can be split next, if a split limit is used
+     * @param examined the nodes in the order they are examined, if a split limit is used
+     * @param minForkSize the fewest rows a child needs to be split as a separate task
      */
-    public String split(int depthLimit, boolean splitIsLimited, PriorityQueue<Node> frontier) {
-        // get the values of the attribute being split on
-        ArrayList<Character> vals = new ArrayList<>(attributes.get(attrIndex).keySet());
-
-        // For each value of the attribute
-        for (int i = 0; i < vals.size(); i++) {
-            // construct the list of example points from all data points
-            ArrayList<Point> exs = new ArrayList<>();
-            for (Point point : data) {
-                if (point.containsInput(attrIndex, vals.get(i))) {
-                    exs.add(point);
+    private void split(int depthLimit, boolean splitIsLimited, Frontier frontier, List<Node> examined, int minForkSize) {
+        long startTime = metrics != null ? System.nanoTime() : 0;
+
+        // Find the branch of each value of the attribute being split on. A threshold
+        // split has two branches, for the values up to the threshold and those after it.
+        byte[] column = data.getColumn(attrIndex);
+        byte[] labels = data.getLabels();
+        numOfCodes = data.getAttributes()[attrIndex].getNumOfValues();
+        int numOfBranches = threshold >= 0 ? 2 : numOfCodes;
+        int[] branchOf = new int[numOfCodes];
+        for (int v = 0; v < numOfCodes; v++) {
+            branchOf[v] = getBranch(v);
+        }
+
+        // Count the rows and output classes on each branch
+        int[] ends = new int[numOfBranches];
+        int[][] branchCounts = new int[numOfBranches][classCounts.length];
+        for (int r = from; r < to; r++) {
+            int row = rows[r];
+            int v = branchOf[column[row] & 0xFF];
+            ends[v]++;
+            branchCounts[v][labels[row] & 0xFF]++;
+        }
+
+        // Find where each branch's range of rows starts and ends
+        int[] starts = new int[numOfBranches];
+        int start = from;
+        for (int v = 0; v < numOfBranches; v++) {
+            starts[v] = start;
+            start += ends[v];
+            ends[v] = start;
+        }
+
+        // Move each row into its branch's range in place. The start of each range
+        // is advanced as it is filled, so each range then starts where the last ends.
+        for (int v = 0; v < numOfBranches; v++) {
+            while (starts[v] < ends[v]) {
+                int row = rows[starts[v]];
+                int w = branchOf[column[row] & 0xFF];
+                if (w == v) {
+                    starts[v]++;
+                }
+                else {
+                    rows[starts[v]] = rows[starts[w]];
+                    rows[starts[w]++] = row;
                 }
             }
+        }
+        for (int v = 0; v < numOfBranches; v++) {
+            starts[v] = v == 0 ? from : ends[v - 1];
+        }
+        if (metrics != null) {
+            metrics.addPartition(System.nanoTime() - startTime, to - from);
+            metrics.addAllocation(Metrics.arrayBytes(numOfCodes, 4) + 2 * Metrics.arrayBytes(numOfBranches, 4)
+                    + Metrics.arrayBytes(numOfBranches, 4) + numOfBranches * Metrics.arrayBytes(classCounts.length, 4));
+        }
 
-            if (!exs.isEmpty()) {
-                // Create a subset of attributes but remove the current attribute by setting to null
-                ArrayList<Map<Character, Integer>> subset = new ArrayList<>(attributes);
-                subset.set(attrIndex, null);
-                
+        // For each branch
+        children = new Node[numOfBranches];
+        boolean canFork = !splitIsLimited && ForkJoinTask.inForkJoinPool();
+        ArrayList<GrowTask> tasks = new ArrayList<>();
+        long childNanos = 0;
+        int numOfChildren = 0;
+        for (int v = 0; v < numOfBranches; v++) {
+            if (ends[v] > starts[v]) {
                 // Create new child node and put in directory
-                Node child = new Node(exs, allAttributes, subset, verbosity, depth + 1);
-                directory.put(vals.get(i), child);
+                long childStart = metrics != null ? System.nanoTime() : 0;
+                Node child = new Node(this, starts[v], ends[v], branchCounts[v]);
+                children[v] = child;
+                if (metrics != null) {
+                    childNanos += System.nanoTime() - childStart;
+                    numOfChildren++;
+                }
 
                 if (splitIsLimited) {
-                    // Using BFS, so determine info gain and put in frontier
-                    child.importance(null);
-                    sb.append(child.examine(depthLimit));
+                    // Using BFS, so score the child once and put it in the frontier with its best split
+                    child.examine(depthLimit);
+                    examined.add(child);
                     if (child.attrIndex > Integer.MIN_VALUE) {
                         frontier.add(child);
                     }
                 }
+                else if (canFork && child.to - child.from >= minForkSize) {
+                    // Using DFS, and the subtree is large enough to grow on another thread
+                    child.table = new int[table.length];
+                    child.candidates = new int[candidates.length];
+                    if (metrics != null) {
+                        metrics.addAllocation(Metrics.arrayBytes(table.length, 4) + Metrics.arrayBytes(candidates.length, 4));
+                    }
+                    GrowTask task = new GrowTask(child, depthLimit, minForkSize);
+                    task.fork();
+                    tasks.add(task);
+                }
                 else {
                     // Using DFP, so split immediately 
-                    sb.append(child.examine(depthLimit));
-                    if (child.attrIndex > Integer.MIN_VALUE) {
-                        sb.append(child.split(depthLimit, splitIsLimited, frontier));
-                    }
+                    child.grow(depthLimit, minForkSize);
                 }
             }
         }
-        return sb.toString();
+
+        // Wait for the subtrees on other threads
+        for (GrowTask task : tasks) {
+            task.join();
+        }
+        if (metrics != null) {
+            metrics.addChildren(childNanos, numOfChildren);
+            metrics.addAllocation(Metrics.arrayBytes(numOfBranches, 4));
+        }
+    }
+
+    /**
+     * Examines the node and, if it can be split, grows the subtree below it depth first
+     * @param depthLimit the depth limit of the tree
+     * @param minForkSize the fewest rows a child needs to be split as a separate task
+     */
+    private void grow(int depthLimit, int minForkSize) {
+        examine(depthLimit);
+        if (attrIndex > Integer.MIN_VALUE) {
+            split(depthLimit, false, null, null, minForkSize);
+        }
+    }
+
+    /**
+     * A task that grows the subtree below a node
+     */
+    private static class GrowTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private Node node;
+        private int depthLimit;
+        private int minForkSize;
+
+        /**
+         * Creates a task for a node
+         * @param node the node
+         * @param depthLimit the depth limit of the tree
+         * @param minForkSize the fewest rows a child needs to be split as a separate task
+         */
+        public GrowTask(Node node, int depthLimit, int minForkSize) {
+            this.node = node;
+            this.depthLimit = depthLimit;
+            this.minForkSize = minForkSize;
+        }
+
+        @Override
+        protected void compute() {
+            node.grow(depthLimit, minForkSize);
+        }
     }
 
     /**
@@ -192,124 +360,318 @@ public class Node implements Comparable<Node> {
      * @param splitLimit the split limit
      * @return a string for logging purposes
      */
-    public String learn(int depthLimit, int splitLimit, PriorityQueue<Node> frontier) {
+    public String learn(int depthLimit, int splitLimit, Frontier frontier) {
+        return learn(depthLimit, splitLimit, frontier, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Starts the learning process/builds the tree. Without a split limit, subtrees
+     * can be grown in parallel on a pool, and the log is the same as growing them in order.
+     * @param depthLimit the depth limit to use
+     * @param splitLimit the split limit
+     * @param frontier the nodes that can be split next, if a split limit is used
+     * @param pool the pool to grow subtrees on, or null to grow them on this thread
+     * @param minForkSize the fewest rows a subtree needs to be grown as a separate task
+     * @return a string for logging purposes
+     */
+    public String learn(int depthLimit, int splitLimit, Frontier frontier, ForkJoinPool pool, int minForkSize) {
+        build(depthLimit, splitLimit, frontier, pool, minForkSize);
+        return describe();
+    }
+
+    /**
+     * Builds the tree without numbering its nodes, so trees can be built at the
+     * same time. The log is made afterwards with describe.
+     * @param depthLimit the depth limit to use
+     * @param splitLimit the split limit
+     * @param frontier the nodes that can be split next, if a split limit is used
+     * @param pool the pool to grow subtrees on, or null to grow them on this thread
+     * @param minForkSize the fewest rows a subtree needs to be grown as a separate task
+     */
+    public void build(int depthLimit, int splitLimit, Frontier frontier, ForkJoinPool pool, int minForkSize) {
         boolean splitIsLimited = splitLimit > 0;
+        if (metrics != null) {
+            metrics.addTree();
+        }
         if (splitIsLimited) {
             // Use BFS
-            StringBuilder sb = new StringBuilder();
+            examined = new ArrayList<>();
+            this.frontier = frontier;
+            if (metrics != null) {
+                metrics.addNode(depth, to - from);
+            }
             attrIndex = importance(null);
-            frontier.add(this);
+            if (attrIndex >= 0) {
+                frontier.add(this);
+            }
             
             // While there are splits remaining and nodes in the frontier
             for (int i = 0; i < splitLimit && !frontier.isEmpty(); i++) {
                 // Get node and split
                 Node n = frontier.poll();
-                sb.append(n.split(depthLimit, splitIsLimited, frontier));
+                n.split(depthLimit, splitIsLimited, frontier, examined, minForkSize);
             }
-            return sb.toString();
         }
         else {
             // Use DFS
-            sb.append(examine(depthLimit));
-            if (attrIndex == Integer.MIN_VALUE) {
-                return sb.toString();
+            if (pool != null) {
+                pool.invoke(new GrowTask(this, depthLimit, minForkSize));
+            }
+            else {
+                grow(depthLimit, minForkSize);
             }
-            return split(depthLimit, splitIsLimited, frontier);
         }
     }
 
     /**
-     * Calculates the importance of the node, which is the best possible gain
-     * @param sb
-     * @return the index of the most gainful attribute
+     * Numbers the nodes of a built tree, continuing from the last tree that was
+     * described, and lists what each examination found.
+     * @return a string for logging purposes
      */
-    private int importance(StringBuilder sb) {
-        double bestGain = -1.0;
-        int bestIndex = -1;
-        double gain;
+    public String describe() {
+        StringBuilder sb = new StringBuilder();
+        if (examined != null) {
+            // Number the nodes in the order they were examined
+            for (Node n : examined) {
+                n.describe(sb);
+            }
+        }
+        else {
+            describeTree(sb);
+        }
+        return sb.toString();
+    }
 
-        // For each attribute
-        for (int i = 0; i < attributes.size(); i++) {
-            if (attributes.get(i) != null) {
-                // Calculate the information gain 
-                gain = entropy(outputClasses) - remainingEntropy(i);
+    /**
+     * Lists the nodes of a tree grown depth first in the order they are described,
+     * so the log still covers every node that was examined once the tree is pruned
+     */
+    public void keepExamined() {
+        if (examined == null) {
+            examined = new ArrayList<>();
+            listTree(examined);
+        }
+    }
 
-                if (verbosity >= 4 && sb != null) {
-                    sb.append(String.format("        Gain=%.4f with split on [%s]\n", gain, allAttributes[i].getName()));
+    /**
+     * Lists the nodes of the subtree depth first
+     * @param nodes the list to add to
+     */
+    private void listTree(List<Node> nodes) {
+        nodes.add(this);
+        if (children != null) {
+            for (Node child : children) {
+                if (child != null) {
+                    child.listTree(nodes);
                 }
+            }
+        }
+    }
+
+    /**
+     * Numbers the node and appends what its examination found
+     * @param sb the log
+     */
+    private void describe(StringBuilder sb) {
+        sb.append(String.format("      Examining node %d ", Node.nodeNum)).append(examination);
+        Node.nodeNum++;
+    }
 
-                if (gain > bestGain) {
-                    // Update bests
-                    bestGain = gain;
-                    bestIndex = i;
+    /**
+     * Numbers the nodes of the subtree depth first and appends what their examinations found
+     * @param sb the log
+     */
+    private void describeTree(StringBuilder sb) {
+        describe(sb);
+        if (children != null) {
+            for (Node child : children) {
+                if (child != null) {
+                    child.describeTree(sb);
                 }
             }
         }
-        infoGain = bestGain;
-        return bestIndex;
     }
 
     /**
-     * Calculates the remaining entropy of the Node if split on an attribute
-     * @param j the index of the attribute to theoretically split on
-     * @return the remaining entropy
+     * Calculates the importance of the node, which is the best possible gain. A table of
+     * (attribute value x output class) counts is filled for every remaining attribute in
+     * a single pass over its column, and every gain is derived from those tables. An
+     * ordered attribute is split in two at the threshold with the most gain, which one
+     * sweep over its table finds, since the codes are already in order.
+     * @param sb
+     * @return the index of the most gainful attribute, or -1 if none separates the rows
      */
-    private double remainingEntropy(int j) {
-        double remainder = 0.0;
-        Map<Character, Integer> vj = attributes.get(j);
+    int importance(StringBuilder sb) {
+        long startTime = metrics != null ? System.nanoTime() : 0;
+        double bestGain = -1.0;
+        int bestIndex = -1;
+        int bestThreshold = -1;
+        double gain;
+        Attribute[] attributes = data.getAttributes();
+        byte[] labels = data.getLabels();
+        int numOfClasses = classCounts.length;
+
+        // Find the attributes to consider, which may be a random subset of those left
+        int numOfChoices = 0;
+        for (int i = 0; i < attributes.length; i++) {
+            if (attributes[i].isOrdered() || !isUsed(i)) {
+                candidates[numOfChoices++] = i;
+            }
+        }
+        if (random != null && numOfCandidates < numOfChoices) {
+            for (int c = 0; c < numOfCandidates; c++) {
+                int pick = c + random.nextInt(numOfChoices - c);
+                int temp = candidates[c];
+                candidates[c] = candidates[pick];
+                candidates[pick] = temp;
+            }
+            numOfChoices = numOfCandidates;
+            Arrays.sort(candidates, 0, numOfChoices);
+        }
 
-        // For each attribute and its frequency
-        for (Map.Entry<Character, Integer> entry : vj.entrySet()) {
-            char v = entry.getKey();
+        // For each attribute
+        for (int c = 0; c < numOfChoices; c++) {
+            int i = candidates[c];
+            // Count the output classes of the rows with each value
+            byte[] column = data.getColumn(i);
+            int numOfValues = attributes[i].getNumOfValues();
+            Arrays.fill(table, 0, numOfValues * numOfClasses, 0);
+            for (int r = from; r < to; r++) {
+                int row = rows[r];
+                table[(column[row] & 0xFF) * numOfClasses + (labels[row] & 0xFF)]++;
+            }
 
-            // Get the set points that contain the attribute value
-            ArrayList<Point> sv = new ArrayList<>();
-            for (Point point : data) {
-                if (point.containsInput(j, v)) {
-                    sv.add(point);
+            // Calculate the information gain, which cannot be negative apart from rounding
+            int split = -1;
+            if (attributes[i].isOrdered()) {
+                split = bestThreshold(numOfValues);
+                if (split < 0) {
+                    continue;
                 }
+                gain = Math.max(0.0, entropy - thresholdEntropy(split));
+            }
+            else {
+                gain = Math.max(0.0, entropy - remainingEntropy(numOfValues));
             }
 
-            // Get the frequencies of the output classes
-            Map<Character, Integer> classes = new HashMap<>();
-            for (Point point : sv) {
-                char oClass = point.getOutput();
-                if (!classes.containsKey(oClass)) {
-                    classes.put(oClass, 1);
+            if (verbosity >= 4 && sb != null) {
+                if (split >= 0) {
+                    sb.append(String.format("        Gain=%.4f with split on [%s] at [%s]\n", gain, attributes[i].getName(), attributes[i].getLabel(split)));
                 }
                 else {
-                    classes.put(oClass, classes.get(oClass) + 1);
+                    sb.append(String.format("        Gain=%.4f with split on [%s]\n", gain, attributes[i].getName()));
                 }
             }
 
-            // Aggregate the remainder
-            remainder += (sv.size() / (double)data.size()) * entropy(classes);
+            if (gain > bestGain) {
+                // Update bests
+                bestGain = gain;
+                bestIndex = i;
+                bestThreshold = split;
+            }
         }
-        return remainder;
+        infoGain = bestGain;
+        threshold = bestThreshold;
+        if (metrics != null) {
+            metrics.addGain(System.nanoTime() - startTime, numOfChoices, to - from);
+        }
+        return bestIndex;
     }
 
     /**
-     * Calculates the entropy of the Node
-     * @param outputClasses the frequencies of the nodes output classes
-     * @return the entropy
+     * Finds the threshold of an ordered attribute that leaves the least entropy.
+     * The counts of each value are moved from the right side to the left side in
+     * code order, so every threshold is tried in one sweep over the table. The
+     * class counts of the best threshold's left side are left after the table.
+     * @param numOfValues the number of values of the attribute, whose (value x output
+     * class) counts are in the table
+     * @return the highest code on the left side, or -1 if every row has the same value
      */
-    private double entropy(Map<Character, Integer> outputClasses) {
-        // Count the number of total outputs
-        int setCount = 0;
-        for (Map.Entry<Character, Integer> k : outputClasses.entrySet()) {
-            int kCount = k.getValue();
-            setCount += kCount;
+    private int bestThreshold(int numOfValues) {
+        int numOfClasses = classCounts.length;
+        int left = table.length - 2 * numOfClasses;
+        int best = left + numOfClasses;
+        int size = to - from;
+        Arrays.fill(table, left, table.length, 0);
+
+        double bestRemainder = Double.MAX_VALUE;
+        int bestThreshold = -1;
+        int leftSize = 0;
+        for (int t = 0; t < numOfValues - 1; t++) {
+            // Move the value's counts to the left side
+            int valueSize = 0;
+            for (int k = 0; k < numOfClasses; k++) {
+                table[left + k] += table[t * numOfClasses + k];
+                valueSize += table[t * numOfClasses + k];
+            }
+            leftSize += valueSize;
+            if (valueSize == 0 || leftSize == 0) {
+                continue;
+            }
+            if (leftSize == size) {
+                break;
+            }
+
+            // The right side is whatever is not on the left
+            double remainder = nLog2N[leftSize] - Entropy.sum(nLog2N, table, left, numOfClasses) + nLog2N[size - leftSize];
+            for (int k = 0; k < numOfClasses; k++) {
+                remainder -= nLog2N[classCounts[k] - table[left + k]];
+            }
+            if (remainder < bestRemainder) {
+                bestRemainder = remainder;
+                bestThreshold = t;
+                System.arraycopy(table, left, table, best, numOfClasses);
+            }
+        }
+        return bestThreshold;
+    }
+
+    /**
+     * Calculates the remaining entropy of the Node if split at the best threshold
+     * found by bestThreshold, whose left side's class counts are after the table
+     * @param threshold the threshold
+     * @return the remaining entropy
+     */
+    private double thresholdEntropy(int threshold) {
+        int numOfClasses = classCounts.length;
+        int best = table.length - numOfClasses;
+        int leftSize = 0;
+        for (int k = 0; k < numOfClasses; k++) {
+            leftSize += table[best + k];
         }
-        
-        // Calculate entropy
-        double hS = 0.0;
-        for (Map.Entry<Character, Integer> k : outputClasses.entrySet()) {
-            int kCount = k.getValue();
 
-            double proportion = kCount / (double) setCount;
-            hS += proportion * (Math.log(proportion) / Math.log(2));
+        double remainder = nLog2N[leftSize] - Entropy.sum(nLog2N, table, best, numOfClasses) + nLog2N[(to - from) - leftSize];
+        for (int k = 0; k < numOfClasses; k++) {
+            remainder -= nLog2N[classCounts[k] - table[best + k]];
+        }
+        return remainder / (to - from);
+    }
+
+    /**
+     * Calculates the remaining entropy of the Node if split on an attribute,
+     * which is the sum over the values of (n_v log2 n_v - sum of c_vk log2 c_vk),
+     * divided by the number of rows in the node
+     * @param numOfValues the number of values of the attribute to theoretically
+     * split on, whose (value x output class) counts are in the table
+     * @return the remaining entropy
+     */
+    private double remainingEntropy(int numOfValues) {
+        double remainder = 0.0;
+        int numOfClasses = classCounts.length;
+
+        // For each attribute value
+        for (int v = 0; v < numOfValues; v++) {
+            int size = 0;
+            for (int k = 0; k < numOfClasses; k++) {
+                size += table[v * numOfClasses + k];
+            }
+
+            // Aggregate the remainder
+            if (size > 0) {
+                remainder += nLog2N[size] - Entropy.sum(nLog2N, table, v * numOfClasses, numOfClasses);
+            }
         }
-        return hS * -1;
+        return remainder / (to - from);
     }
 
     /**
@@ -321,26 +683,101 @@ public class Node implements Comparable<Node> {
     }
 
     /**
-     * Gets the directory, which contains the branches and the associated nodes
+     * Gets the threshold of an ordered attribute's split
+     * @return the highest code on the first branch, or -1 if each value has its own branch
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Gets the number of value codes that have a branch
      * @return
      */
-    public Map<Character, Node> getDirectory() {
-        return directory;
+    public int getNumOfCodes() {
+        return numOfCodes;
     }
 
     /**
-     * Gets the predicted output of the node
+     * Gets the index in the children of the branch for a value of the split attribute
+     * @param code the code of the value
      * @return
      */
-    public char getOutput() {
+    public int getBranch(int code) {
+        if (threshold >= 0) {
+            return code <= threshold ? 0 : 1;
+        }
+        return code;
+    }
+
+    /**
+     * Gets the children, indexed by the code of the split attribute's value.
+     * Values without a branch have no child.
+     * @return
+     */
+    public Node[] getChildren() {
+        return children;
+    }
+
+    /**
+     * Turns the node into a leaf by removing the subtree below it
+     * @return the number of nodes removed
+     */
+    int prune() {
+        int removed = countNodes() - 1;
+        children = null;
+        return removed;
+    }
+
+    /**
+     * Counts the nodes of the subtree below and including the node
+     * @return
+     */
+    public int countNodes() {
+        int count = 1;
+        if (children != null) {
+            for (Node child : children) {
+                if (child != null) {
+                    count += child.countNodes();
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of the node's rows that its predicted output class gets wrong
+     * @return
+     */
+    public int getErrorCount() {
+        int max = 0;
+        for (int count : classCounts) {
+            max = Math.max(max, count);
+        }
+        return (to - from) - max;
+    }
+
+    /**
+     * Determines if the node was never split or was pruned
+     * @return
+     */
+    public boolean isLeaf() {
+        return children == null;
+    }
+
+    /**
+     * Gets the predicted output class of the node
+     * @return the code of the output class
+     */
+    public int getOutput() {
         int count = -1;
-        char result = ' ';
+        int result = -1;
 
         // Determine which output class has the greater frequency
-        for (Map.Entry<Character, Integer> entry : outputClasses.entrySet()) {
-            if (entry.getValue() > count) {
-                count = entry.getValue();
-                result = entry.getKey();
+        for (int k = 0; k < classCounts.length; k++) {
+            if (classCounts[k] > count) {
+                count = classCounts[k];
+                result = k;
             }
         }
         return result;
@@ -363,21 +800,10 @@ public class Node implements Comparable<Node> {
     }
 
     /**
-     * Part of the Comparable interface, which is used for the PriorityQueue that is
-     * used if the split limit is enforced.
-     * @param o
-     * @return
+     * Gets the frontier the tree was grown with, if a split limit was used
+     * @return the frontier, or null
      */
-    @Override
-    public int compareTo(Node o) {
-        if (this.infoGain > o.getInfoGain()) {
-            return -1;
-        }
-        else if (this.infoGain < o.getInfoGain()) {
-            return 1;
-        }
-        else {
-            return 0;
-        }
+    public Frontier getFrontier() {
+        return frontier;
     }
 }
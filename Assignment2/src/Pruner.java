@@ -0,0 +1,159 @@
+/**
+ * Tanner Turba
+ * October 30, 2024
+ * CS 557 - Machine Learning
+ *
+ * This class prunes learned decision trees, turning subtrees that do not
+ * pay for themselves back into leaves. Both kinds of pruning work bottom
+ * up, so every subtree is judged after the subtrees below it were pruned.
+ *
+ * Reduced-error pruning uses rows that were held out from learning, and
+ * replaces a subtree with a leaf whenever the leaf gets no more of those
+ * rows wrong than the subtree does.
+ *
+ * Cost-complexity pruning uses the training rows that each node holds.
+ * A subtree costs its training errors plus alpha for each of its leaves,
+ * and is replaced with a leaf whenever the leaf costs no more. Larger
+ * values of alpha give smaller trees.
+ */
+public class Pruner {
+    /**
+     * Prunes a tree with rows that were not used to learn it
+     * @param root the root of the tree
+     * @param data the dataset
+     * @param rows the held out rows
+     * @return the number of nodes removed
+     */
+    public static int reducedError(Node root, Dataset data, int[] rows) {
+        int[] removed = new int[1];
+        reducedError(root, data, rows.clone(), 0, rows.length, removed);
+        return removed[0];
+    }
+
+    /**
+     * Prunes the subtree below a node with the held out rows that reach it
+     * @param node the node
+     * @param data the dataset
+     * @param rows the held out rows, which are reordered by branch
+     * @param from the index of the first row that reaches the node
+     * @param to the index after the last row that reaches the node
+     * @param removed the number of nodes removed so far
+     * @return the number of rows the pruned subtree gets wrong
+     */
+    private static int reducedError(Node node, Dataset data, int[] rows, int from, int to, int[] removed) {
+        int output = node.getOutput();
+        int leafErrors = 0;
+        for (int r = from; r < to; r++) {
+            if (data.getLabel(rows[r]) != output) {
+                leafErrors++;
+            }
+        }
+        if (node.isLeaf()) {
+            return leafErrors;
+        }
+
+        // Find the branch each row takes. Rows without a branch stop at the node,
+        // and are listed first.
+        Node[] children = node.getChildren();
+        int attr = node.getAttrIndex();
+        int[] ends = new int[children.length + 1];
+        for (int r = from; r < to; r++) {
+            ends[branch(node, data.getValue(attr, rows[r])) + 1]++;
+        }
+        int[] starts = new int[ends.length];
+        int start = from;
+        for (int b = 0; b < ends.length; b++) {
+            starts[b] = start;
+            start += ends[b];
+            ends[b] = start;
+        }
+
+        // Move each row into its branch's range in place, as in Node.split
+        for (int b = 0; b < ends.length; b++) {
+            while (starts[b] < ends[b]) {
+                int row = rows[starts[b]];
+                int w = branch(node, data.getValue(attr, row)) + 1;
+                if (w == b) {
+                    starts[b]++;
+                }
+                else {
+                    rows[starts[b]] = rows[starts[w]];
+                    rows[starts[w]++] = row;
+                }
+            }
+        }
+
+        // Rows that stop at the node are predicted by it either way
+        int subtreeErrors = 0;
+        for (int r = from; r < ends[0]; r++) {
+            if (data.getLabel(rows[r]) != output) {
+                subtreeErrors++;
+            }
+        }
+        for (int b = 1; b < ends.length; b++) {
+            if (children[b - 1] != null) {
+                subtreeErrors += reducedError(children[b - 1], data, rows, ends[b - 1], ends[b], removed);
+            }
+        }
+
+        if (leafErrors <= subtreeErrors) {
+            removed[0] += node.prune();
+            return leafErrors;
+        }
+        return subtreeErrors;
+    }
+
+    /**
+     * Finds the branch that a value takes from a node
+     * @param node the node, which must be split
+     * @param code the code of the value
+     * @return the index of the child, or -1 if there is no child for the value
+     */
+    private static int branch(Node node, int code) {
+        if (code >= node.getNumOfCodes()) {
+            return -1;
+        }
+        int b = node.getBranch(code);
+        return node.getChildren()[b] != null ? b : -1;
+    }
+
+    /**
+     * Prunes a tree so that it has the least cost, which is its training errors
+     * plus alpha for each leaf
+     * @param root the root of the tree
+     * @param alpha the cost of each leaf
+     * @return the number of nodes removed
+     */
+    public static int costComplexity(Node root, double alpha) {
+        int[] removed = new int[1];
+        costComplexity(root, alpha, removed);
+        return removed[0];
+    }
+
+    /**
+     * Prunes the subtree below a node so that it has the least cost
+     * @param node the node
+     * @param alpha the cost of each leaf
+     * @param removed the number of nodes removed so far
+     * @return the cost of the pruned subtree
+     */
+    private static double costComplexity(Node node, double alpha, int[] removed) {
+        double leafCost = node.getErrorCount() + alpha;
+        if (node.isLeaf()) {
+            return leafCost;
+        }
+
+        double subtreeCost = 0.0;
+        for (Node child : node.getChildren()) {
+            if (child != null) {
+                subtreeCost += costComplexity(child, alpha, removed);
+            }
+        }
+
+        if (leafCost <= subtreeCost) {
+            removed[0] += node.prune();
+            return leafCost;
+        }
+        return subtreeCost;
+    }
+}
@@ -0,0 +1,99 @@
+import java.io.*;
+import java.util.*;
+
+/*
+ * Tanner Turba
+ * December 3, 2024
+ * CS 557 - Machine Learning
+ * 
+ * Runs the cases of the neural network benchmarks. This class is in the default package so it
+ * can reach the program's classes, and the benchmarks reach it through benchmarks.Network.
+ */
+public class NetworkCases implements benchmarks.Network {
+    private String fileName;
+    private String[] hidden;
+    private Driver driver;
+    private ArrayList<Point> trainingSet;
+
+    @Override
+    public void open(String fileName, String hiddenLayers) {
+        this.fileName = fileName;
+        String[] sizes = hiddenLayers.trim().split("\\s+");
+        hidden = new String[sizes.length + 2];
+        hidden[0] = "-h";
+        hidden[1] = Integer.toString(sizes.length);
+        System.arraycopy(sizes, 0, hidden, 2, sizes.length);
+
+        driver = createDriver(0);
+        trainingSet = driver.getTrainingSet();
+    }
+
+    /**
+     * Creates a driver with a built network for the file.
+     * @param epochs the epoch limit
+     * @return the driver
+     */
+    private Driver createDriver(int epochs) {
+        ArrayList<String> args = new ArrayList<>(Arrays.asList("-f", fileName, "-e", Integer.toString(epochs), "-m", "1", "-v", "0"));
+        args.addAll(Arrays.asList(hidden));
+        Driver driver = new Driver(args.toArray(new String[0]));
+        driver.readFile();
+        driver.initNetwork();
+        return driver;
+    }
+
+    @Override
+    public ArrayList<Point> loadWithScanner() throws IOException {
+        ArrayList<Point> dataPoints = new ArrayList<>();
+        Scanner scanner = new Scanner(new File(fileName));
+        int dataIndex = 1;
+        while (scanner.hasNextLine()) {
+            String line = scanner.nextLine().trim();
+            if (line.charAt(0) != '#') {
+                dataPoints.add(new Point(line, dataIndex));
+                dataIndex++;
+            }
+        }
+        scanner.close();
+        return dataPoints;
+    }
+
+    @Override
+    public ArrayList<Point> loadWithReader() throws IOException {
+        ArrayList<Point> dataPoints = new ArrayList<>();
+        try (NumberReader reader = NumberReader.open(fileName)) {
+            int count;
+            int dataIndex = 1;
+            while ((count = reader.next()) != -1) {
+                dataPoints.add(new Point(reader.getValues(), reader.getGroupEnd(), count, dataIndex));
+                dataIndex++;
+            }
+        }
+        return dataPoints;
+    }
+
+    @Override
+    public ArrayList<Point> readFileAndInitNetwork() {
+        return createDriver(0).getTrainingSet();
+    }
+
+    @Override
+    public double forwardPropagation() {
+        return driver.getAccuracy(trainingSet);
+    }
+
+    @Override
+    public int backPropagation() {
+        for (Point point : trainingSet) {
+            driver.backPropagate(point, 0, 1);
+        }
+        return trainingSet.size();
+    }
+
+    @Override
+    public double neuralNetworkTrain() {
+        Driver trained = createDriver(10);
+        trained.neuralNetworkTrain();
+        return trained.getAccuracy(trained.getTrainingSet());
+    }
+}
@@ -0,0 +1,42 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/*
+ * Tanner Turba
+ * December 3, 2024
+ * CS 557 - Machine Learning
+ * 
+ * Compares loading the bundled data file with the original Scanner and regex split path against
+ * NumberReader. Run from the Assignment3 folder, and use "-p fileName=..." to time another
+ * file, such as a large generated one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoaderBenchmark {
+    @Param({ "test.txt" })
+    private String fileName;
+
+    private Network cases;
+
+    @Setup
+    public void setUp() throws Exception {
+        cases = Network.create();
+        cases.open(fileName, "8");
+    }
+
+    @Benchmark
+    public Object scanner() throws Exception {
+        return cases.loadWithScanner();
+    }
+
+    @Benchmark
+    public Object numberReader() throws Exception {
+        return cases.loadWithReader();
+    }
+}
@@ -0,0 +1,69 @@
+package benchmarks;
+
+import java.io.IOException;
+
+/*
+ * Tanner Turba
+ * December 3, 2024
+ * CS 557 - Machine Learning
+ * 
+ * The hot paths of the neural network, as the benchmarks see them. The program's classes are
+ * in the default package, which JMH does not allow benchmarks in and which cannot be imported,
+ * so the benchmarks call them through this interface. NetworkCases, in the default package,
+ * implements it.
+ */
+public interface Network {
+    /**
+     * Creates the cases, which are found by name since their class cannot be imported.
+     * @return the cases
+     * @throws ReflectiveOperationException if NetworkCases is missing
+     */
+    static Network create() throws ReflectiveOperationException {
+        return (Network)Class.forName("NetworkCases").getDeclaredConstructor().newInstance();
+    }
+
+    /**
+     * Reads a data file and builds a network for it.
+     * @param fileName the data file
+     * @param hiddenLayers the sizes of the hidden layers, separated by spaces
+     */
+    void open(String fileName, String hiddenLayers);
+
+    /**
+     * Loads the file with a Scanner and a regex split, the way Driver originally did.
+     * @return the points
+     * @throws IOException if the file cannot be read
+     */
+    Object loadWithScanner() throws IOException;
+
+    /**
+     * Loads the file with NumberReader, the way Driver does now.
+     * @return the points
+     * @throws IOException if the file cannot be read
+     */
+    Object loadWithReader() throws IOException;
+
+    /**
+     * Reads the file and builds a new network, which is what every run starts with.
+     * @return the training set
+     */
+    Object readFileAndInitNetwork();
+
+    /**
+     * Propagates the training set forward and finds the accuracy.
+     * @return the accuracy
+     */
+    double forwardPropagation();
+
+    /**
+     * Propagates every point of the training set backward, one at a time.
+     * @return the number of points
+     */
+    int backPropagation();
+
+    /**
+     * Trains a new network for 10 epochs.
+     * @return the accuracy on the training set
+     */
+    double neuralNetworkTrain();
+}
@@ -0,0 +1,55 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/*
+ * Tanner Turba
+ * December 3, 2024
+ * CS 557 - Machine Learning
+ * 
+ * Times building, propagating through and training the network on the bundled data file. Run
+ * from the Assignment3 folder, and use "-p fileName=..." to time another file or
+ * "-p hiddenLayers=..." for other hidden layer sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NetworkBenchmark {
+    @Param({ "test.txt" })
+    private String fileName;
+
+    @Param({ "8", "16 16" })
+    private String hiddenLayers;
+
+    private Network cases;
+
+    @Setup
+    public void setUp() throws Exception {
+        cases = Network.create();
+        cases.open(fileName, hiddenLayers);
+    }
+
+    @Benchmark
+    public Object readFileAndInitNetwork() {
+        return cases.readFileAndInitNetwork();
+    }
+
+    @Benchmark
+    public double forwardPropagation() {
+        return cases.forwardPropagation();
+    }
+
+    @Benchmark
+    public int backPropagation() {
+        return cases.backPropagation();
+    }
+
+    @Benchmark
+    public double neuralNetworkTrain() {
+        return cases.neuralNetworkTrain();
+    }
+}
@@ -1,4 +1,5 @@
 import java.io.*;
+import java.nio.file.NoSuchFileException;
 import java.util.*;
 
 /*
@@ -93,24 +94,23 @@ public class Driver {
     public void readFile() {
         ArrayList<Point> dataPoints = new ArrayList<>();
         // Load full data set from file
-        try {
-            Scanner scanner = new Scanner(new File(fileName));
+        try (NumberReader reader = NumberReader.open(fileName)) {
             int dataIndex = 1;
 
             sb.append(String.format("* Reading %s\n", fileName));
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine().trim();
-                if (line.charAt(0) != '#') {
-                    // Not a comment, so continue
-                    dataPoints.add(new Point(line, dataIndex));
-                    dataIndex++;
-                }
+            int count;
+            while ((count = reader.next()) != -1) {
+                // Comments are skipped by the reader, and ')' ends the attributes
+                dataPoints.add(new Point(reader.getValues(), reader.getGroupEnd(), count, dataIndex));
+                dataIndex++;
             }
-            scanner.close();
         } 
-        catch (FileNotFoundException e) {
+        catch (NoSuchFileException e) {
             System.err.println("No such file or directory: " + fileName);
         }
+        catch (IOException e) {
+            System.err.println("Unable to read " + fileName + ": " + e.getMessage());
+        }
 
         // If there is data, split into training and validation sets (80% for training)
         if (dataPoints.size() > 0) {
@@ -347,7 +347,7 @@ public class Driver {
      * @param exampleIndex the index of the data point in the batch
      * @param batchSize the batch size
      */
-    private void backPropagate(Point data, int exampleIndex, int batchSize) {
+    void backPropagate(Point data, int exampleIndex, int batchSize) {
         // Forward Propagation
         forwardPropagateTrain(data, exampleIndex, batchSize);
 
@@ -582,6 +582,14 @@ public class Driver {
         return loss / set.size();
     }
 
+    /**
+     * Gets the training set read from the file.
+     * @return
+     */
+    ArrayList<Point> getTrainingSet() {
+        return trainingSet;
+    }
+
     /**
      * The general workflow of training the model.
      */
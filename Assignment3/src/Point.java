@@ -39,6 +39,28 @@ public class Point {
         this.index = index;
     }
 
+    /**
+     * Constructs a point object from a row that has already been parsed, in the form
+     * (attributes...) (outputs...).
+     * @param values the values of the row.
+     * @param numOfAttributes the number of values that are attributes.
+     * @param count the total number of values in the row.
+     * @param index the index of the data point for printing purposes.
+     */
+    public Point(double[] values, int numOfAttributes, int count, int index) {
+        // Record attribute values.
+        attributes = Arrays.copyOf(values, numOfAttributes);
+
+        // Record output class index.
+        numOfClasses = count - numOfAttributes;
+        for (int i = 0; i < numOfClasses && outputClassIndex == -1; i++) {
+            if (values[numOfAttributes + i] == 1.0) {
+                outputClassIndex = i;
+            }
+        }
+        this.index = index;
+    }
+
     /**
      * Gets the attributes.
      * @return
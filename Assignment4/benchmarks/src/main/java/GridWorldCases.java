@@ -0,0 +1,31 @@
+/*
+ * Tanner Turba
+ * December 10, 2024
+ * CS 557 - Machine Learning
+ * 
+ * Runs the cases of the grid world benchmarks. This class is in the default package so it can
+ * reach the program's classes, and the benchmarks reach it through benchmarks.GridWorld.
+ */
+public class GridWorldCases implements benchmarks.GridWorld {
+    private String[] driverArgs;
+    private Driver driver;
+
+    @Override
+    public void open(String fileName, int trials, boolean isQLearning) {
+        driverArgs = isQLearning
+            ? new String[] { "-f", fileName, "-T", Integer.toString(trials), "-v", "0", "-q" }
+            : new String[] { "-f", fileName, "-T", Integer.toString(trials), "-v", "0" };
+        driver = new Driver(driverArgs);
+        driver.play(true, false);
+    }
+
+    @Override
+    public double training() {
+        return new Driver(driverArgs).play(true, false);
+    }
+
+    @Override
+    public double evaluation() {
+        return driver.play(false, false);
+    }
+}
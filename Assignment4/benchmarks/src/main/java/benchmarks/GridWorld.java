@@ -0,0 +1,42 @@
+package benchmarks;
+
+/*
+ * Tanner Turba
+ * December 10, 2024
+ * CS 557 - Machine Learning
+ * 
+ * The training and evaluation episodes of the agent, as the benchmarks see them. The program's
+ * classes are in the default package, which JMH does not allow benchmarks in and which cannot
+ * be imported, so the benchmarks call them through this interface. GridWorldCases, in the
+ * default package, implements it.
+ */
+public interface GridWorld {
+    /**
+     * Creates the cases, which are found by name since their class cannot be imported.
+     * @return the cases
+     * @throws ReflectiveOperationException if GridWorldCases is missing
+     */
+    static GridWorld create() throws ReflectiveOperationException {
+        return (GridWorld)Class.forName("GridWorldCases").getDeclaredConstructor().newInstance();
+    }
+
+    /**
+     * Reads a grid and trains an agent on it for the evaluation case.
+     * @param fileName the grid file
+     * @param trials the number of learning episodes
+     * @param isQLearning true to use Q-Learning instead of SARSA
+     */
+    void open(String fileName, int trials, boolean isQLearning);
+
+    /**
+     * Trains a new agent for every learning episode.
+     * @return the result of the training
+     */
+    double training();
+
+    /**
+     * Runs the evaluation episodes with the trained agent.
+     * @return the average reward
+     */
+    double evaluation();
+}
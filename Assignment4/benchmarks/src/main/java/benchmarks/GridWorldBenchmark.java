@@ -0,0 +1,48 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/*
+ * Tanner Turba
+ * December 10, 2024
+ * CS 557 - Machine Learning
+ * 
+ * Times the training and evaluation episodes of SARSA and Q-Learning on the bundled grid. Run
+ * from the Assignment4 folder, and use "-p fileName=..." to time another grid or
+ * "-p trials=..." for another number of learning episodes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridWorldBenchmark {
+    @Param({ "test.txt" })
+    private String fileName;
+
+    @Param({ "10000" })
+    private int trials;
+
+    @Param({ "false", "true" })
+    private boolean isQLearning;
+
+    private GridWorld cases;
+
+    @Setup
+    public void setUp() throws Exception {
+        cases = GridWorld.create();
+        cases.open(fileName, trials, isQLearning);
+    }
+
+    @Benchmark
+    public double training() {
+        return cases.training();
+    }
+
+    @Benchmark
+    public double evaluation() {
+        return cases.evaluation();
+    }
+}
@@ -0,0 +1,269 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+/**
+ * Tanner Turba
+ * CS 557 - Machine Learning
+ * Reads rows of whitespace-separated ASCII numbers directly from bytes, without creating a
+ * String for each line or field. Lines starting with '#' are comments, and parentheses are
+ * treated as separators so rows like "(0.1 0.2) (0 1)" can be read too. The position of the
+ * first ')' in a row is recorded, which lets callers split a row into groups. Assignment1 and
+ * Assignment3 both load their data files with it.
+ */
+public class NumberReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    private ByteBuffer buffer;
+    private FileChannel channel;
+    private double[] values = new double[16];
+    private int count = 0;
+    private int groupEnd = -1;
+    private int terminator;
+    private byte[] token = new byte[64];
+    private int tokenLength = 0;
+
+    /**
+     * Creates a reader over bytes that are already in memory, such as a mapped file.
+     * @param buffer the bytes to read, from their current position to their limit.
+     */
+    public NumberReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Creates a reader that refills a fixed-size buffer from a channel as it is consumed,
+     * so files of any size can be read with bounded memory.
+     * @param channel the channel to read.
+     */
+    public NumberReader(FileChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.buffer.flip();
+    }
+
+    /**
+     * Opens a file by mapping it into memory, or by reading it through a buffer when it is
+     * too large to map.
+     * @param fileName the file to open.
+     * @return the reader.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static NumberReader open(String fileName) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+        long size = channel.size();
+        if (size < Integer.MAX_VALUE) {
+            NumberReader reader = new NumberReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            channel.close();
+            return reader;
+        }
+        return new NumberReader(channel);
+    }
+
+    /**
+     * Reads the next row that holds at least one number, skipping comments and blank lines.
+     * @return the number of values in the row, or -1 at the end of the input.
+     * @throws IOException if the input cannot be read.
+     */
+    public int next() throws IOException {
+        int c = read();
+        while (c != -1) {
+            count = 0;
+            groupEnd = -1;
+
+            // Skip leading whitespace, then check for a comment
+            while (c == ' ' || c == '\t' || c == '\r') {
+                c = read();
+            }
+            if (c == '#') {
+                while (c != '\n' && c != -1) {
+                    c = read();
+                }
+            }
+
+            // Read every value on the line
+            while (c != '\n' && c != -1) {
+                if (c == ' ' || c == '\t' || c == '\r' || c == '(') {
+                    c = read();
+                }
+                else if (c == ')') {
+                    if (groupEnd < 0) {
+                        groupEnd = count;
+                    }
+                    c = read();
+                }
+                else {
+                    if (count == values.length) {
+                        double[] larger = new double[values.length * 2];
+                        System.arraycopy(values, 0, larger, 0, count);
+                        values = larger;
+                    }
+                    values[count++] = parseNumber(c);
+                    c = terminator;
+                }
+            }
+
+            if (count > 0) {
+                return count;
+            }
+            c = read();
+        }
+        count = 0;
+        return -1;
+    }
+
+    /**
+     * Parses a number that begins with the specified character. The character that ended
+     * the number is left in the terminator field.
+     * @param c the first character of the number.
+     * @return the parsed number.
+     * @throws IOException if the input cannot be read.
+     */
+    private double parseNumber(int c) throws IOException {
+        tokenLength = 0;
+        boolean isNegative = false;
+        if (c == '-' || c == '+') {
+            isNegative = c == '-';
+            c = append(c);
+        }
+
+        // Collect up to 15 significant digits, which are exact in a double. A number with more
+        // is parsed with Double.parseDouble, since rounding its mantissa could change the result.
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean hasDigits = false;
+        while (c >= '0' && c <= '9') {
+            if (mantissa != 0 || c != '0') {
+                digits++;
+            }
+            if (digits <= MAX_EXACT_DIGITS) {
+                mantissa = mantissa * 10 + (c - '0');
+            }
+            else {
+                exponent++;
+            }
+            hasDigits = true;
+            c = append(c);
+        }
+        if (c == '.') {
+            c = append(c);
+            while (c >= '0' && c <= '9') {
+                if (mantissa != 0 || c != '0') {
+                    digits++;
+                }
+                if (digits <= MAX_EXACT_DIGITS) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    exponent--;
+                }
+                hasDigits = true;
+                c = append(c);
+            }
+        }
+        if (c == 'e' || c == 'E') {
+            c = append(c);
+            boolean isNegativeExp = false;
+            if (c == '-' || c == '+') {
+                isNegativeExp = c == '-';
+                c = append(c);
+            }
+            int exp = 0;
+            while (c >= '0' && c <= '9') {
+                exp = Math.min(exp * 10 + (c - '0'), 10000);
+                c = append(c);
+            }
+            exponent += isNegativeExp ? -exp : exp;
+        }
+        boolean isExact = hasDigits && digits <= MAX_EXACT_DIGITS && exponent >= -22 && exponent <= 22;
+
+        // Anything else belongs to a token this reader does not understand
+        while (c != -1 && c != ' ' && c != '\t' && c != '\r' && c != '\n' && c != '(' && c != ')') {
+            isExact = false;
+            c = append(c);
+        }
+        terminator = c;
+
+        if (!isExact) {
+            return Double.parseDouble(new String(token, 0, tokenLength, StandardCharsets.ISO_8859_1));
+        }
+        double result = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+        return isNegative ? -result : result;
+    }
+
+    /**
+     * Records a character of the current number, in case it has to be parsed the slow way.
+     * @param c the character.
+     * @return the next character.
+     * @throws IOException if the input cannot be read.
+     */
+    private int append(int c) throws IOException {
+        if (tokenLength == token.length) {
+            byte[] larger = new byte[token.length * 2];
+            System.arraycopy(token, 0, larger, 0, tokenLength);
+            token = larger;
+        }
+        token[tokenLength++] = (byte)c;
+        return read();
+    }
+
+    /**
+     * Reads the next byte, refilling the buffer from the channel if necessary.
+     * @return the next byte, or -1 at the end of the input.
+     * @throws IOException if the input cannot be read.
+     */
+    private int read() throws IOException {
+        if (!buffer.hasRemaining()) {
+            if (channel == null) {
+                return -1;
+            }
+            buffer.clear();
+            int read = channel.read(buffer);
+            buffer.flip();
+            if (read <= 0) {
+                return -1;
+            }
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    /**
+     * Gets the values of the current row. The array is reused, and may be longer than the row.
+     * @return the values.
+     */
+    public double[] getValues() {
+        return values;
+    }
+
+    /**
+     * Gets the number of values in the current row.
+     * @return the number of values.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the number of values in the current row that came before the first ')'.
+     * @return the number of values, or -1 if the row has no ')'.
+     */
+    public int getGroupEnd() {
+        return groupEnd;
+    }
+
+    /**
+     * Closes the underlying channel, if there is one.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tanner Turba
+ * CS 557 - Machine Learning
+ * Checks that NumberReader parses numbers to the same doubles as Double.parseDouble, on both
+ * sides of the 15 digit limit of its fast path.
+ */
+public class NumberReaderTest {
+    /**
+     * Reads every number on one line.
+     * @param line the line.
+     * @return the numbers.
+     * @throws IOException if the line cannot be read.
+     */
+    private static double[] read(String line) throws IOException {
+        try (NumberReader reader = new NumberReader(ByteBuffer.wrap(line.getBytes(StandardCharsets.US_ASCII)))) {
+            int count = reader.next();
+            double[] values = new double[count];
+            System.arraycopy(reader.getValues(), 0, values, 0, count);
+            return values;
+        }
+    }
+
+    /**
+     * Asserts that every number on a line is parsed to the same bits as Double.parseDouble.
+     * @param fields the numbers.
+     * @throws IOException if the line cannot be read.
+     */
+    private static void assertParsed(String... fields) throws IOException {
+        double[] values = read(String.join(" ", fields));
+        assertEquals(fields.length, values.length);
+        for (int i = 0; i < fields.length; i++) {
+            assertEquals(Double.doubleToRawLongBits(Double.parseDouble(fields[i])), Double.doubleToRawLongBits(values[i]), fields[i]);
+        }
+    }
+
+    @Test
+    public void fastPathDigits() throws IOException {
+        assertParsed("0", "-0", "1", "-2.5", "0.665034835482", "123456789012345", "1.23456789012345", "-9.99999999999999e22");
+    }
+
+    @Test
+    public void sixteenToEighteenDigits() throws IOException {
+        // Past 15 digits the mantissa can be inexact in a double, and for these rounding it
+        // before scaling by a power of ten gives a different double than parsing does
+        assertParsed("9007199254740993", "1.0618650069984619", "15.469051076190383", "9620457380964.823",
+            "29834757.859367603", "7.65225771163496987", "74503881484327.5974", "-0.999999999999999999");
+    }
+
+    @Test
+    public void exponentsAndLongTokens() throws IOException {
+        assertParsed("1e22", "1e23", "2.5e-22", "2.5e-23", "0.000000000000000000001234", "1.0E+5", "179769313486231570e291");
+    }
+}